@@ -0,0 +1,99 @@
+package com.selimellieh.backend.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.selimellieh.backend.api.dto.admin.RevocationJobResponse;
+import com.selimellieh.backend.api.dto.admin.RevokeSessionsRequest;
+import com.selimellieh.backend.api.dto.common.ErrorResponse;
+import com.selimellieh.backend.session.RefreshTokenSweeper;
+import com.selimellieh.backend.session.RevocationJob;
+import com.selimellieh.backend.session.RevocationScope;
+import com.selimellieh.backend.session.SessionRevocationService;
+
+import jakarta.validation.Valid;
+
+/**
+ * Admin-only tools (ADMIN role, enforced in SecurityConfig).
+ *
+ * - POST   /api/admin/sessions/revocations      -> start a bulk revocation job
+ * - GET    /api/admin/sessions/revocations/{id} -> job progress
+ * - DELETE /api/admin/sessions/revocations/{id} -> cancel a job
+ * - GET    /api/admin/sessions/sweeper            -> expired refresh token sweep stats
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final SessionRevocationService sessionRevocationService;
+    private final RefreshTokenSweeper refreshTokenSweeper;
+
+    public AdminController(SessionRevocationService sessionRevocationService,
+                           RefreshTokenSweeper refreshTokenSweeper) {
+        this.sessionRevocationService = sessionRevocationService;
+        this.refreshTokenSweeper = refreshTokenSweeper;
+    }
+
+    @PostMapping("/sessions/revocations")
+    public ResponseEntity<?> revokeSessions(@Valid @RequestBody RevokeSessionsRequest request) {
+        if (request.scope() == RevocationScope.ROLE && request.role() == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse("role is required for scope ROLE"));
+        }
+        if (request.scope() == RevocationScope.EMAIL_DOMAIN && request.emailDomain() == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse("emailDomain is required for scope EMAIL_DOMAIN"));
+        }
+
+        RevocationJob job = sessionRevocationService.start(request.scope(), request.role(), request.emailDomain());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(toResponse(job));
+    }
+
+    @GetMapping("/sessions/revocations/{id}")
+    public ResponseEntity<?> getRevocation(@PathVariable String id) {
+        RevocationJob job = sessionRevocationService.get(id);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse("Revocation job not found"));
+        }
+        return ResponseEntity.ok(toResponse(job));
+    }
+
+    @DeleteMapping("/sessions/revocations/{id}")
+    public ResponseEntity<?> cancelRevocation(@PathVariable String id) {
+        RevocationJob job = sessionRevocationService.cancel(id);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse("Revocation job not found"));
+        }
+        return ResponseEntity.ok(toResponse(job));
+    }
+
+    @GetMapping("/sessions/sweeper")
+    public ResponseEntity<?> getSweeperStats() {
+        return ResponseEntity.ok(refreshTokenSweeper.getStats());
+    }
+
+    private RevocationJobResponse toResponse(RevocationJob job) {
+        return new RevocationJobResponse(
+            job.getId(),
+            job.getScope().name(),
+            job.getRole() != null ? job.getRole().name() : null,
+            job.getEmailDomain(),
+            job.getStatus().name(),
+            job.getRevokedSessions(),
+            job.getChunks(),
+            job.getCreatedAt(),
+            job.getStartedAt(),
+            job.getFinishedAt(),
+            job.getError()
+        );
+    }
+}
@@ -1,5 +1,6 @@
 package com.selimellieh.backend.api;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -33,6 +34,12 @@ public class ApiExceptionHandler {
             .body(new ErrorResponse("Malformed or empty JSON body"));
     }
 
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body(new ErrorResponse("Request conflicts with existing data"));
+    }
+
     private String formatFieldError(FieldError error) {
         String field = error.getField();
         String message = error.getDefaultMessage();
@@ -1,19 +1,27 @@
 package com.selimellieh.backend.api;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.security.Principal;
 
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.selimellieh.backend.api.dto.auth.AuthResponse;
+import com.selimellieh.backend.api.dto.auth.EmailAvailabilityResponse;
+import com.selimellieh.backend.api.dto.auth.IntrospectRequest;
+import com.selimellieh.backend.api.dto.auth.IntrospectResponse;
 import com.selimellieh.backend.api.dto.auth.LoginRequest;
 import com.selimellieh.backend.api.dto.auth.RefreshRequest;
 import com.selimellieh.backend.api.dto.auth.RegisterRequest;
@@ -21,9 +29,16 @@ import com.selimellieh.backend.api.dto.common.ErrorResponse;
 import com.selimellieh.backend.api.dto.common.SimpleMessageResponse;
 import com.selimellieh.backend.entity.Role;
 import com.selimellieh.backend.entity.User;
-import com.selimellieh.backend.repository.UserRepository;
+import com.selimellieh.backend.jfr.AuthPhases;
+import com.selimellieh.backend.repository.UserStore;
 import com.selimellieh.backend.security.JwtUtil;
+import com.selimellieh.backend.security.LoginSucceededEvent;
+import com.selimellieh.backend.security.RefreshCoordinator;
+import com.selimellieh.backend.security.TokenIntrospectionService;
+import com.selimellieh.backend.signup.EmailAvailabilityService;
+import com.selimellieh.backend.signup.EmailAvailabilityThrottle;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 /**
@@ -32,36 +47,62 @@ import jakarta.validation.Valid;
  * The frontend can:
  * - POST /api/auth/login  -> get access + refresh tokens
  * - POST /api/auth/refresh -> get a new access token using a refresh token
+ *   (concurrent refreshes of one token are coalesced by RefreshCoordinator)
  * - POST /api/auth/register -> create a user account
+ * - GET  /api/auth/email-availability?email= -> check whether an email is still free
+ *   (throttled per client address, see EmailAvailabilityThrottle)
+ *
+ * Repository calls are wrapped in AuthPhases so they show up as JFR query events.
+ *
+ * Gateways and internal services can:
+ * - POST /api/auth/introspect -> check a batch of tokens (requires X-Introspection-Secret)
  */
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
-    private final UserRepository userRepository;
+    private final UserStore userStore;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TokenIntrospectionService tokenIntrospectionService;
+    private final RefreshCoordinator refreshCoordinator;
+    private final EmailAvailabilityService emailAvailabilityService;
+    private final EmailAvailabilityThrottle emailAvailabilityThrottle;
 
-    public AuthController(UserRepository userRepository,
+    public AuthController(UserStore userStore,
                           PasswordEncoder passwordEncoder,
-                          JwtUtil jwtUtil) {
-        this.userRepository = userRepository;
+                          JwtUtil jwtUtil,
+                          ApplicationEventPublisher eventPublisher,
+                          TokenIntrospectionService tokenIntrospectionService,
+                          RefreshCoordinator refreshCoordinator,
+                          EmailAvailabilityService emailAvailabilityService,
+                          EmailAvailabilityThrottle emailAvailabilityThrottle) {
+        this.userStore = userStore;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.eventPublisher = eventPublisher;
+        this.tokenIntrospectionService = tokenIntrospectionService;
+        this.refreshCoordinator = refreshCoordinator;
+        this.emailAvailabilityService = emailAvailabilityService;
+        this.emailAvailabilityThrottle = emailAvailabilityThrottle;
     }
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
-        User user = userRepository.findByEmail(request.email());
+        User user = AuthPhases.query("findByEmail", () -> userStore.findByEmail(request.email()));
         if (user == null || !passwordEncoder.matches(request.password(), user.getPassword())) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body(new ErrorResponse("Invalid email or password"));
         }
 
-        String accessToken = jwtUtil.generateAccessToken(user.getEmail());
+        String accessToken = jwtUtil.generateAccessToken(user.getEmail(), user.getRole());
         String refreshToken = jwtUtil.generateRefreshToken(user.getEmail());
-        user.setRefreshToken(refreshToken);
-        userRepository.save(user);
+        if (!replaceRefreshToken(user, refreshToken)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponse("Session changed during login, please try again"));
+        }
+        eventPublisher.publishEvent(new LoginSucceededEvent(user.getEmail()));
 
         return ResponseEntity.ok(
             new AuthResponse(
@@ -74,66 +115,71 @@ public class AuthController {
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
-        User existingUser = userRepository.findByEmail(request.email());
-        if (existingUser != null) {
+        String refreshToken = jwtUtil.generateRefreshToken(request.email());
+        Instant refreshTokenExpiresAt = jwtUtil.refreshTokenExpiresAt();
+
+        // Most taken emails are caught here, without hashing and usually without a
+        // query (the email index answers "definitely absent" from memory).
+        if (!emailAvailabilityService.isAvailable(request.email())) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
                 .body(new ErrorResponse("Email already registered"));
         }
 
-        User user = new User(
-            request.email(),
+        // Hashed before the insert, so no connection is held across BCrypt.
+        UserStore.Credentials credentials = new UserStore.Credentials(
             passwordEncoder.encode(request.password()),
-            Role.USER
+            refreshToken,
+            refreshTokenExpiresAt
         );
+        // A signup racing for the same email is still caught by the insert itself.
+        boolean created = AuthPhases.record(
+            AuthPhases.QUERY,
+            "insertIfAbsent",
+            () -> userStore.createIfAbsent(request.email(), Role.USER, credentials),
+            inserted -> inserted ? "created" : "conflict"
+        );
+        if (!created) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse("Email already registered"));
+        }
 
-        String accessToken = jwtUtil.generateAccessToken(user.getEmail());
-        String refreshToken = jwtUtil.generateRefreshToken(user.getEmail());
-        user.setRefreshToken(refreshToken);
-        userRepository.save(user);
+        String accessToken = jwtUtil.generateAccessToken(request.email(), Role.USER);
+        emailAvailabilityService.recordRegistered(request.email());
 
         return ResponseEntity.status(HttpStatus.CREATED).body(
             new AuthResponse(
                 accessToken,
                 refreshToken,
-                user.getEmail()
+                request.email()
             )
         );
     }
 
-    @PostMapping("/refresh")
-    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest request) {
-        String token = request.refreshToken();
-
-        if (!jwtUtil.validateToken(token)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                .body(new ErrorResponse("Invalid or expired refresh token"));
+    @GetMapping("/email-availability")
+    public ResponseEntity<?> emailAvailability(@RequestParam(required = false) String email,
+                                               HttpServletRequest httpRequest) {
+        if (!StringUtils.hasText(email)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse("email is required"));
         }
-
-        String email = jwtUtil.getEmailFromToken(token);
-        User user = userRepository.findByEmail(email);
-        if (user == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                .body(new ErrorResponse("User no longer exists"));
-        }
-        if (user.getRefreshToken() == null || !user.getRefreshToken().equals(token)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                .body(new ErrorResponse("Refresh token is no longer valid"));
+        // Unauthenticated, so throttled per client to keep it from being an enumeration oracle.
+        if (!emailAvailabilityThrottle.tryAcquire(httpRequest.getRemoteAddr())) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "60")
+                .body(new ErrorResponse("Too many email checks, try again later"));
         }
 
-        String newAccessToken = jwtUtil.generateAccessToken(user.getEmail());
-        String newRefreshToken = jwtUtil.generateRefreshToken(user.getEmail());
-        user.setRefreshToken(newRefreshToken);
-        userRepository.save(user);
-
         return ResponseEntity.ok(
-            new AuthResponse(
-                newAccessToken,
-                newRefreshToken,
-                user.getEmail()
-            )
+            new EmailAvailabilityResponse(email, emailAvailabilityService.isAvailable(email))
         );
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest request) {
+        String token = request.refreshToken();
+        return refreshCoordinator.refresh(token, () -> rotateRefreshToken(token));
+    }
+
     @PostMapping("/logout")
     public ResponseEntity<?> logout(Principal principal) {
         if (principal == null) {
@@ -141,23 +187,37 @@ public class AuthController {
                 .body(new ErrorResponse("Unauthorized"));
         }
 
-        User user = userRepository.findByEmail(principal.getName());
+        User user = AuthPhases.query("findByEmail", () -> userStore.findByEmail(principal.getName()));
         if (user == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(new ErrorResponse("User not found"));
         }
 
-        user.setRefreshToken(null);
-        userRepository.save(user);
+        AuthPhases.record(
+            AuthPhases.QUERY,
+            "clearRefreshTokens",
+            () -> userStore.clearRefreshTokens(List.of(user.getId())),
+            cleared -> cleared > 0 ? "cleared" : "none"
+        );
+        refreshCoordinator.forget(user.getEmail());
 
         return ResponseEntity.ok(new SimpleMessageResponse("Logged out"));
     }
 
+    @PostMapping("/introspect")
+    public ResponseEntity<?> introspect(@Valid @RequestBody IntrospectRequest request) {
+        // X-Introspection-Secret was already checked by IntrospectionCallerFilter,
+        // before the body was read.
+        return ResponseEntity.ok(
+            new IntrospectResponse(tokenIntrospectionService.introspect(request.tokens()))
+        );
+    }
+
     @GetMapping("/ping")
     public ResponseEntity<?> ping() {
         String dbStatus = "up";
         try {
-            userRepository.count();
+            AuthPhases.query("count", userStore::count);
         } catch (Exception ex) {
             dbStatus = "down";
         }
@@ -171,5 +231,55 @@ public class AuthController {
         );
     }
 
-}
+    private ResponseEntity<?> rotateRefreshToken(String token) {
+        if (!jwtUtil.validateToken(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponse("Invalid or expired refresh token"));
+        }
+
+        String email = jwtUtil.getEmailFromToken(token);
+        User user = AuthPhases.query("findByEmail", () -> userStore.findByEmail(email));
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponse("User no longer exists"));
+        }
+        if (user.getRefreshToken() == null || !user.getRefreshToken().equals(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponse("Refresh token is no longer valid"));
+        }
+
+        String newAccessToken = jwtUtil.generateAccessToken(user.getEmail(), user.getRole());
+        String newRefreshToken = jwtUtil.generateRefreshToken(user.getEmail());
+        // The token was revoked or rotated after the read above.
+        if (!replaceRefreshToken(user, newRefreshToken)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponse("Refresh token is no longer valid"));
+        }
 
+        return ResponseEntity.ok(
+            new AuthResponse(
+                newAccessToken,
+                newRefreshToken,
+                user.getEmail()
+            )
+        );
+    }
+
+    /**
+     * Compare-and-set on the token this request read, instead of saving the whole
+     * entity, so a revocation that ran in between is never overwritten.
+     */
+    private boolean replaceRefreshToken(User user, String newRefreshToken) {
+        return AuthPhases.record(
+            AuthPhases.QUERY,
+            "replaceRefreshToken",
+            () -> userStore.replaceRefreshToken(
+                user.getId(),
+                user.getRefreshToken(),
+                newRefreshToken,
+                jwtUtil.refreshTokenExpiresAt()
+            ),
+            replaced -> replaced ? "replaced" : "conflict"
+        );
+    }
+}
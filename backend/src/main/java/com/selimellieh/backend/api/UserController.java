@@ -10,7 +10,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.selimellieh.backend.entity.User;
-import com.selimellieh.backend.repository.UserRepository;
+import com.selimellieh.backend.jfr.AuthPhases;
+import com.selimellieh.backend.repository.UserStore;
 
 /**
  * Minimal user API.
@@ -23,10 +24,10 @@ import com.selimellieh.backend.repository.UserRepository;
 @RequestMapping("/api/user")
 public class UserController {
 
-    private final UserRepository userRepository;
+    private final UserStore userStore;
 
-    public UserController(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public UserController(UserStore userStore) {
+        this.userStore = userStore;
     }
 
     @GetMapping("/me")
@@ -38,7 +39,7 @@ public class UserController {
             );
         }
 
-        User user = userRepository.findByEmail(principal.getName());
+        User user = AuthPhases.query("findByEmail", () -> userStore.findByEmail(principal.getName()));
         if (user == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
                 Map.of("error", "User not found")
@@ -0,0 +1,17 @@
+package com.selimellieh.backend.api.dto.admin;
+
+import java.time.Instant;
+
+public record RevocationJobResponse(
+    String id,
+    String scope,
+    String role,
+    String emailDomain,
+    String status,
+    long revokedSessions,
+    int chunks,
+    Instant createdAt,
+    Instant startedAt,
+    Instant finishedAt,
+    String error
+) {}
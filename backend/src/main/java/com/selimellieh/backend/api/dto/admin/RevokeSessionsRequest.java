@@ -0,0 +1,16 @@
+package com.selimellieh.backend.api.dto.admin;
+
+import com.selimellieh.backend.entity.Role;
+import com.selimellieh.backend.session.RevocationScope;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * role is required for scope ROLE, emailDomain for scope EMAIL_DOMAIN.
+ */
+public record RevokeSessionsRequest(
+    @NotNull RevocationScope scope,
+    Role role,
+    @Pattern(regexp = "^[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$", message = "must be a domain name") String emailDomain
+) {}
@@ -0,0 +1,6 @@
+package com.selimellieh.backend.api.dto.auth;
+
+public record EmailAvailabilityResponse(
+    String email,
+    boolean available
+) {}
@@ -0,0 +1,11 @@
+package com.selimellieh.backend.api.dto.auth;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+public record IntrospectRequest(
+    @NotEmpty @Size(max = 100) List<@NotBlank String> tokens
+) {}
@@ -0,0 +1,10 @@
+package com.selimellieh.backend.api.dto.auth;
+
+import java.util.List;
+
+/**
+ * Results are returned in the same order as the tokens in the request.
+ */
+public record IntrospectResponse(
+    List<TokenIntrospection> tokens
+) {}
@@ -0,0 +1,13 @@
+package com.selimellieh.backend.api.dto.auth;
+
+import java.time.Instant;
+
+public record TokenIntrospection(
+    boolean active,
+    String subject,
+    String role,
+    Instant expiresAt
+) {
+
+    public static final TokenIntrospection INACTIVE = new TokenIntrospection(false, null, null, null);
+}
@@ -1,9 +1,14 @@
 package com.selimellieh.backend.entity;
 
+import java.time.Instant;
+
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "users")
+@Table(
+    name = "users",
+    indexes = @Index(name = "idx_users_refresh_token_expires_at", columnList = "refresh_token_expires_at")
+)
 public class User {
 
     @Id
@@ -23,6 +28,10 @@ public class User {
     @Column(name = "refresh_token")
     private String refreshToken;
 
+    // Stored so expired refresh tokens can be purged without parsing each JWT.
+    @Column(name = "refresh_token_expires_at")
+    private Instant refreshTokenExpiresAt;
+
     protected User() {
         // JPA only
     }
@@ -33,6 +42,14 @@ public class User {
         this.role = role;
     }
 
+    // For stores that assign ids themselves (MappedUserStore); JPA always generates them.
+    public User(Long id, String email, String password, Role role, String refreshToken, Instant refreshTokenExpiresAt) {
+        this(email, password, role);
+        this.id = id;
+        this.refreshToken = refreshToken;
+        this.refreshTokenExpiresAt = refreshTokenExpiresAt;
+    }
+
     public Long getId() {
         return id;
     }
@@ -68,5 +85,12 @@ public class User {
     public void setRefreshToken(String refreshToken) {
         this.refreshToken = refreshToken;
     }
-}
 
+    public Instant getRefreshTokenExpiresAt() {
+        return refreshTokenExpiresAt;
+    }
+
+    public void setRefreshTokenExpiresAt(Instant refreshTokenExpiresAt) {
+        this.refreshTokenExpiresAt = refreshTokenExpiresAt;
+    }
+}
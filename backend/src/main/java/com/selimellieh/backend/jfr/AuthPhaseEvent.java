@@ -0,0 +1,33 @@
+package com.selimellieh.backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering one phase of an auth request (filter, token, password, query).
+ * The duration is the event's own begin/end span.
+ */
+@Name(AuthPhaseEvent.NAME)
+@Label("Auth Phase")
+@Description("One phase of an authentication request")
+@Category({"Secure Login", "Auth"})
+@StackTrace(false)
+public class AuthPhaseEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.selimellieh.backend.AuthPhase";
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Outcome")
+    String outcome;
+}
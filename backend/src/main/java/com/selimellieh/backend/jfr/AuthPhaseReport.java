@@ -0,0 +1,102 @@
+package com.selimellieh.backend.jfr;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Summarizes AuthPhaseEvent data in a .jfr file into per-phase latency breakdowns.
+ *
+ * Only uses the JDK, so it runs straight from source:
+ * java src/main/java/com/selimellieh/backend/jfr/AuthPhaseReport.java recording.jfr
+ */
+public final class AuthPhaseReport {
+
+    // Same as AuthPhaseEvent.NAME, repeated so this file compiles on its own.
+    private static final String EVENT_NAME = "com.selimellieh.backend.AuthPhase";
+
+    private AuthPhaseReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: AuthPhaseReport <recording.jfr>");
+            System.exit(1);
+        }
+
+        Map<String, Phase> phases = summarize(RecordingFile.readAllEvents(Path.of(args[0])));
+
+        if (phases.isEmpty()) {
+            System.out.println("No " + EVENT_NAME + " events found");
+            return;
+        }
+
+        System.out.printf("%-60s %8s %9s %9s %9s %9s  %s%n",
+            "endpoint | phase | operation", "count", "p50 ms", "p95 ms", "p99 ms", "max ms", "outcomes");
+        phases.forEach((key, phase) -> phase.print(key));
+    }
+
+    /**
+     * Groups AuthPhaseEvents by "endpoint | phase | operation", sorted by key.
+     * Other event types are ignored.
+     */
+    static Map<String, Phase> summarize(List<RecordedEvent> events) {
+        Map<String, Phase> phases = new TreeMap<>();
+        for (RecordedEvent event : events) {
+            if (!EVENT_NAME.equals(event.getEventType().getName())) {
+                continue;
+            }
+            String key = event.getString("endpoint") + " | " + event.getString("phase") + " | " + event.getString("operation");
+            phases.computeIfAbsent(key, ignored -> new Phase())
+                .add(event.getDuration(), event.getString("outcome"));
+        }
+        return phases;
+    }
+
+    static final class Phase {
+
+        private final List<Long> durations = new ArrayList<>();
+        private final Map<String, Integer> outcomes = new TreeMap<>();
+
+        void add(Duration duration, String outcome) {
+            durations.add(duration.toNanos());
+            outcomes.merge(outcome == null ? "-" : outcome, 1, Integer::sum);
+        }
+
+        int count() {
+            return durations.size();
+        }
+
+        Map<String, Integer> outcomes() {
+            return outcomes;
+        }
+
+        double percentileMillis(double p) {
+            durations.sort(null);
+            int index = (int) Math.ceil(p * durations.size()) - 1;
+            return durations.get(Math.max(0, index)) / 1_000_000.0;
+        }
+
+        double maxMillis() {
+            return percentileMillis(1.0);
+        }
+
+        void print(String key) {
+            System.out.printf("%-60s %8d %9.3f %9.3f %9.3f %9.3f  %s%n",
+                key,
+                count(),
+                percentileMillis(0.50),
+                percentileMillis(0.95),
+                percentileMillis(0.99),
+                maxMillis(),
+                outcomes);
+        }
+    }
+}
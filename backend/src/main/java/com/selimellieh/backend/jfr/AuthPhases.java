@@ -0,0 +1,70 @@
+package com.selimellieh.backend.jfr;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Helpers for emitting AuthPhaseEvent around auth work.
+ *
+ * When the event is disabled, begin/end cost little more than an allocation the
+ * JIT can usually remove, so call sites stay instrumented in production.
+ */
+public final class AuthPhases {
+
+    public static final String FILTER = "filter";
+    public static final String TOKEN = "token";
+    public static final String PASSWORD = "password";
+    public static final String QUERY = "query";
+
+    private AuthPhases() {
+    }
+
+    public static AuthPhaseEvent begin(String phase, String operation) {
+        AuthPhaseEvent event = new AuthPhaseEvent();
+        event.begin();
+        event.phase = phase;
+        event.operation = operation;
+        return event;
+    }
+
+    public static void end(AuthPhaseEvent event, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = currentEndpoint();
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    public static <T> T record(String phase, String operation, Supplier<T> action, Function<T, String> outcome) {
+        AuthPhaseEvent event = begin(phase, operation);
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException ex) {
+            end(event, "error");
+            throw ex;
+        }
+        end(event, outcome.apply(result));
+        return result;
+    }
+
+    /**
+     * Records a repository lookup; the outcome is "found" or "none".
+     */
+    public static <T> T query(String operation, Supplier<T> query) {
+        return record(QUERY, operation, query, result -> result != null ? "found" : "none");
+    }
+
+    private static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return servletAttributes.getRequest().getMethod() + " " + servletAttributes.getRequest().getRequestURI();
+        }
+        return "-";
+    }
+}
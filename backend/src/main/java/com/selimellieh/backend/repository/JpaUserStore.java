@@ -0,0 +1,106 @@
+package com.selimellieh.backend.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.selimellieh.backend.entity.Role;
+import com.selimellieh.backend.entity.User;
+
+/**
+ * Default UserStore, backed by UserRepository.
+ */
+@Component
+@ConditionalOnProperty(name = "USER_STORE", havingValue = "jpa", matchIfMissing = true)
+public class JpaUserStore implements UserStore {
+
+    private final UserRepository userRepository;
+
+    public JpaUserStore(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        return userRepository.findByEmail(email);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return userRepository.existsByEmail(email);
+    }
+
+    @Override
+    public User save(User user) {
+        return userRepository.save(user);
+    }
+
+    @Override
+    public long count() {
+        return userRepository.count();
+    }
+
+    // One INSERT ... ON CONFLICT DO NOTHING: the unique email index decides, so
+    // there is no separate existence check and no window between check and insert.
+    @Override
+    public boolean createIfAbsent(String email, Role role, Credentials credentials) {
+        return userRepository.insertIfAbsent(
+            email,
+            credentials.passwordHash(),
+            role.name(),
+            credentials.refreshToken(),
+            credentials.refreshTokenExpiresAt()
+        ) == 1;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachEmail(Consumer<String> action) {
+        try (Stream<String> emails = userRepository.streamAllEmails()) {
+            emails.forEach(action);
+        }
+    }
+
+    @Override
+    public List<Long> findSessionIdsAfter(long afterId, Role role, String emailDomain, int limit) {
+        String emailPattern = emailDomain != null ? "%@" + emailDomain.toLowerCase(Locale.ROOT) : null;
+        return userRepository.findSessionIdsAfter(afterId, role, emailPattern, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public int clearRefreshTokens(List<Long> ids) {
+        return userRepository.clearRefreshTokens(ids);
+    }
+
+    @Override
+    public boolean replaceRefreshToken(long id, String expectedToken, String newToken, Instant newExpiresAt) {
+        return userRepository.replaceRefreshToken(id, expectedToken, newToken, newExpiresAt) == 1;
+    }
+
+    @Override
+    public List<String> findEmailsByIds(List<Long> ids) {
+        return userRepository.findEmailsByIds(ids);
+    }
+
+    @Override
+    public List<Long> findExpiredRefreshTokenIdsAfter(long afterId, Instant now, int limit) {
+        return userRepository.findExpiredRefreshTokenIdsAfter(afterId, now, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public int clearExpiredRefreshTokens(List<Long> ids, Instant now) {
+        return userRepository.clearExpiredRefreshTokens(ids, now);
+    }
+
+    @Override
+    public void deleteAll() {
+        userRepository.deleteAll();
+    }
+}
@@ -1,11 +1,101 @@
 package com.selimellieh.backend.repository;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.selimellieh.backend.entity.Role;
 import com.selimellieh.backend.entity.User;
 
+import jakarta.persistence.QueryHint;
+
 public interface UserRepository extends JpaRepository<User, Long> {
 
     User findByEmail(String email);
-}
 
+    boolean existsByEmail(String email);
+
+    // Callers must hold a (read-only) transaction open while consuming the stream.
+    @Query("SELECT u.email FROM User u")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<String> streamAllEmails();
+
+    /**
+     * Inserts the user unless the email is already taken, in one short statement.
+     * Returns 1 if the row was inserted and 0 on conflict. A concurrent insert of
+     * the same email waits only for that statement's transaction, then reports 0.
+     */
+    @Modifying
+    @Transactional
+    @Query(
+        value = "INSERT INTO users (email, password, role, refresh_token, refresh_token_expires_at)"
+            + " VALUES (:email, :password, :role, :refreshToken, :refreshTokenExpiresAt)"
+            + " ON CONFLICT DO NOTHING",
+        nativeQuery = true
+    )
+    int insertIfAbsent(@Param("email") String email,
+                       @Param("password") String password,
+                       @Param("role") String role,
+                       @Param("refreshToken") String refreshToken,
+                       @Param("refreshTokenExpiresAt") Instant refreshTokenExpiresAt);
+
+    /**
+     * Keyset page of ids of users that still hold a refresh token, ordered by id.
+     * Role and email pattern are optional filters; null matches every user.
+     */
+    @Query("SELECT u.id FROM User u"
+        + " WHERE u.id > :afterId"
+        + " AND u.refreshToken IS NOT NULL"
+        + " AND (:role IS NULL OR u.role = :role)"
+        + " AND (:emailPattern IS NULL OR LOWER(u.email) LIKE :emailPattern)"
+        + " ORDER BY u.id")
+    List<Long> findSessionIdsAfter(@Param("afterId") long afterId,
+                                   @Param("role") Role role,
+                                   @Param("emailPattern") String emailPattern,
+                                   Pageable page);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.refreshToken = NULL, u.refreshTokenExpiresAt = NULL"
+        + " WHERE u.id IN :ids AND u.refreshToken IS NOT NULL")
+    int clearRefreshTokens(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.refreshToken = :newToken, u.refreshTokenExpiresAt = :newExpiresAt"
+        + " WHERE u.id = :id"
+        + " AND ((:expectedToken IS NULL AND u.refreshToken IS NULL) OR u.refreshToken = :expectedToken)")
+    int replaceRefreshToken(@Param("id") long id,
+                            @Param("expectedToken") String expectedToken,
+                            @Param("newToken") String newToken,
+                            @Param("newExpiresAt") Instant newExpiresAt);
+
+    @Query("SELECT u.email FROM User u WHERE u.id IN :ids")
+    List<String> findEmailsByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Keyset page of ids of users whose stored refresh token expired before now.
+     */
+    @Query("SELECT u.id FROM User u"
+        + " WHERE u.id > :afterId"
+        + " AND u.refreshTokenExpiresAt < :now"
+        + " ORDER BY u.id")
+    List<Long> findExpiredRefreshTokenIdsAfter(@Param("afterId") long afterId,
+                                               @Param("now") Instant now,
+                                               Pageable page);
+
+    // Re-checks the expiry so a token rotated since the select is left alone.
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.refreshToken = NULL, u.refreshTokenExpiresAt = NULL"
+        + " WHERE u.id IN :ids AND u.refreshTokenExpiresAt < :now")
+    int clearExpiredRefreshTokens(@Param("ids") List<Long> ids, @Param("now") Instant now);
+}
@@ -0,0 +1,82 @@
+package com.selimellieh.backend.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.selimellieh.backend.entity.Role;
+import com.selimellieh.backend.entity.User;
+
+/**
+ * Storage for user accounts, independent of the backing technology.
+ *
+ * Selected with USER_STORE:
+ * - jpa (default)  -> JpaUserStore, backed by UserRepository and Postgres
+ * - mapped         -> MappedUserStore, an embedded memory-mapped file
+ *
+ * Implementations own their transactions; callers never need one open.
+ */
+public interface UserStore {
+
+    User findByEmail(String email);
+
+    boolean existsByEmail(String email);
+
+    /**
+     * Inserts or updates the user. Inserting an email that is already taken
+     * throws DataIntegrityViolationException, like the unique constraint in JPA.
+     * Use the returned user afterwards: stores may return a new instance
+     * carrying the assigned id and leave the argument untouched.
+     */
+    User save(User user);
+
+    long count();
+
+    /**
+     * Creates the account unless the email is taken, as one conflict-aware
+     * insert (a single round trip for the JPA store). Callers hash the password
+     * beforehand, so no lock or database connection is held across BCrypt.
+     * Returns false if the email was already registered.
+     */
+    boolean createIfAbsent(String email, Role role, Credentials credentials);
+
+    void forEachEmail(Consumer<String> action);
+
+    /**
+     * Keyset page of ids of users that still hold a refresh token, ordered by id.
+     * Role and email domain are optional filters; null matches every user.
+     */
+    List<Long> findSessionIdsAfter(long afterId, Role role, String emailDomain, int limit);
+
+    int clearRefreshTokens(List<Long> ids);
+
+    /**
+     * Sets a new refresh token only if the stored one still equals expectedToken
+     * (null expects no token), so a login or rotation that read the user before a
+     * revocation cannot write the session back. Returns false if it changed meanwhile.
+     */
+    boolean replaceRefreshToken(long id, String expectedToken, String newToken, Instant newExpiresAt);
+
+    /**
+     * Emails of the given users, in no particular order; unknown ids are skipped.
+     */
+    List<String> findEmailsByIds(List<Long> ids);
+
+    /**
+     * Keyset page of ids of users whose stored refresh token expired before now.
+     */
+    List<Long> findExpiredRefreshTokenIdsAfter(long afterId, Instant now, int limit);
+
+    /**
+     * Clears refresh tokens that are still expired, so a token rotated since the select is left alone.
+     */
+    int clearExpiredRefreshTokens(List<Long> ids, Instant now);
+
+    void deleteAll();
+
+    record Credentials(
+        String passwordHash,
+        String refreshToken,
+        Instant refreshTokenExpiresAt
+    ) {}
+}
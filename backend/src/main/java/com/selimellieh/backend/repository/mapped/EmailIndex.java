@@ -0,0 +1,105 @@
+package com.selimellieh.backend.repository.mapped;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Open-addressing (linear probing) hash index from email to user id.
+ *
+ * Only the email's hash and the id are kept in memory; the caller confirms a
+ * candidate by comparing the stored email bytes, so keys are never duplicated
+ * on the heap. Not thread-safe; MappedUserStore guards it with its lock.
+ */
+final class EmailIndex {
+
+    private static final long EMPTY = 0;
+    private static final long REMOVED = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int size;
+    private int occupied;
+
+    /**
+     * Returns the id whose email matches, or 0 if there is none.
+     */
+    long find(int hash, LongPredicate matches) {
+        int mask = ids.length - 1;
+        for (int index = spread(hash) & mask; ; index = (index + 1) & mask) {
+            long id = ids[index];
+            if (id == EMPTY) {
+                return 0;
+            }
+            if (id != REMOVED && hashes[index] == hash && matches.test(id)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Adds an entry; the caller guarantees the email is not indexed yet.
+     */
+    void put(int hash, long id) {
+        if ((occupied + 1) * 2 > ids.length) {
+            resize();
+        }
+        int mask = ids.length - 1;
+        int index = spread(hash) & mask;
+        while (ids[index] != EMPTY && ids[index] != REMOVED) {
+            index = (index + 1) & mask;
+        }
+        if (ids[index] == EMPTY) {
+            occupied++;
+        }
+        hashes[index] = hash;
+        ids[index] = id;
+        size++;
+    }
+
+    boolean remove(int hash, LongPredicate matches) {
+        int mask = ids.length - 1;
+        for (int index = spread(hash) & mask; ; index = (index + 1) & mask) {
+            long id = ids[index];
+            if (id == EMPTY) {
+                return false;
+            }
+            if (id != REMOVED && hashes[index] == hash && matches.test(id)) {
+                ids[index] = REMOVED;
+                size--;
+                return true;
+            }
+        }
+    }
+
+    void clear() {
+        hashes = new int[INITIAL_CAPACITY];
+        ids = new long[INITIAL_CAPACITY];
+        size = 0;
+        occupied = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Grows when live entries fill the table, otherwise just drops removed markers.
+    private void resize() {
+        int capacity = size * 2 >= ids.length / 2 ? ids.length * 2 : ids.length;
+        int[] oldHashes = hashes;
+        long[] oldIds = ids;
+        hashes = new int[capacity];
+        ids = new long[capacity];
+        occupied = 0;
+        size = 0;
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] != EMPTY && oldIds[i] != REMOVED) {
+                put(oldHashes[i], oldIds[i]);
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        int spread = hash * 0x9E3779B9;
+        return spread ^ (spread >>> 16);
+    }
+}
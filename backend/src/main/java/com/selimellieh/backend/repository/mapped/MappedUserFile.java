@@ -0,0 +1,553 @@
+package com.selimellieh.backend.repository.mapped;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import com.selimellieh.backend.entity.Role;
+
+/**
+ * Append-only, memory-mapped storage for MappedUserStore.
+ *
+ * Layout of one generation (users-N.rec + users-N.blob, named by the CURRENT file):
+ * - users-N.rec: two 64-byte header slots, then fixed 64-byte records.
+ * - users-N.blob: variable-length UTF-8 strings (email, password hash,
+ *   refresh token), referenced from records as offset + length.
+ *
+ * Every write appends a new record version; the latest record for an id wins.
+ * The header holds the record count and alternates between two checksummed
+ * slots, so a torn header write leaves the previous one valid. Each record
+ * carries a checksum of itself and of its blob bytes; on open, records past
+ * the first one that fails are a torn tail from a crash and are dropped.
+ * Only records that sync() has covered were acknowledged, and those are
+ * always ahead of any torn record.
+ *
+ * Compaction writes the live records into the next generation and switches
+ * CURRENT with an atomic rename.
+ *
+ * Threading: appends must be serialized by the caller. Reads of committed
+ * slots and sync() are safe alongside an append. A closed generation stays
+ * readable, so readers holding an older generation never fail.
+ */
+final class MappedUserFile implements Closeable {
+
+    static final int RECORD_SIZE = 64;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORDS_START = 2 * HEADER_SIZE;
+    private static final int MAGIC = 0x55535231;
+    private static final int VERSION = 1;
+    private static final long NULL_REF = -1L;
+    private static final long NULL_INSTANT = Long.MIN_VALUE;
+    private static final int MAX_BLOB_LENGTH = (1 << 24) - 1;
+    private static final long MAX_FILE_SIZE = Integer.MAX_VALUE;
+    private static final long MIN_RECORD_FILE_SIZE = RECORDS_START + 1024L * RECORD_SIZE;
+    private static final long MIN_BLOB_FILE_SIZE = 256L * 1024;
+
+    // Record field offsets
+    private static final int ID = 0;
+    private static final int EMAIL = 8;
+    private static final int PASSWORD = 16;
+    private static final int REFRESH_TOKEN = 24;
+    private static final int REFRESH_TOKEN_EXPIRES_AT = 32;
+    private static final int ROLE = 40;
+    private static final int BLOB_CHECKSUM = 44;
+    private static final int RECORD_CHECKSUM = 48;
+
+    // Header field offsets
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_SEQUENCE = 8;
+    private static final int HEADER_RECORD_COUNT = 16;
+    private static final int HEADER_BLOB_END = 24;
+    private static final int HEADER_NEXT_ID = 32;
+    private static final int HEADER_CHECKSUM = 40;
+
+    /**
+     * A record's strings already encoded, so the caller can do this work
+     * before it enters the serialized append.
+     */
+    record Encoded(
+        String email,
+        byte[] emailBytes,
+        byte[] passwordBytes,
+        byte[] refreshTokenBytes,
+        long refreshTokenExpiresAtMillis,
+        Role role,
+        int blobChecksum
+    ) {
+    }
+
+    private final Path directory;
+    private final long generation;
+    private final boolean sync;
+    private final Object syncLock = new Object();
+
+    private FileChannel recordChannel;
+    private FileChannel blobChannel;
+    // Replaced when a file grows; older mappings of the same file stay valid.
+    private volatile MappedByteBuffer records;
+    private volatile MappedByteBuffer blobs;
+
+    private long sequence;
+    private volatile int recordCount;
+    private long blobEnd;
+    private long nextId;
+    private int discardedOnOpen;
+
+    // Guarded by syncLock.
+    private int durableCount;
+    private boolean closed;
+
+    private MappedUserFile(Path directory, long generation, boolean sync) {
+        this.directory = directory;
+        this.generation = generation;
+        this.sync = sync;
+    }
+
+    static MappedUserFile open(Path directory, boolean sync) throws IOException {
+        Files.createDirectories(directory);
+        Path current = directory.resolve("CURRENT");
+        MappedUserFile file;
+        if (Files.exists(current)) {
+            file = new MappedUserFile(directory, Long.parseLong(Files.readString(current).trim()), sync);
+            file.load();
+        } else {
+            file = new MappedUserFile(directory, 0, sync);
+            file.create(1, List.of());
+            file.activate(1);
+        }
+        file.deleteStaleGenerations();
+        return file;
+    }
+
+    static Encoded encode(StoredUser user) {
+        byte[] email = bytes(user.email());
+        byte[] password = bytes(user.password());
+        byte[] refreshToken = bytes(user.refreshToken());
+        CRC32C crc = new CRC32C();
+        for (byte[] blob : new byte[][] {email, password, refreshToken}) {
+            if (blob != null) {
+                crc.update(blob);
+            }
+        }
+        return new Encoded(
+            user.email(),
+            email,
+            password,
+            refreshToken,
+            user.refreshTokenExpiresAt() != null ? user.refreshTokenExpiresAt().toEpochMilli() : NULL_INSTANT,
+            user.role(),
+            (int) crc.getValue()
+        );
+    }
+
+    int recordCount() {
+        return recordCount;
+    }
+
+    long nextId() {
+        return nextId;
+    }
+
+    /**
+     * Number of torn records dropped from the end of the file when it was opened.
+     */
+    int discardedOnOpen() {
+        return discardedOnOpen;
+    }
+
+    /**
+     * Appends a record version and publishes it in the header. Nothing is
+     * forced to disk; call sync(slot) before acknowledging the write.
+     * Returns the record's slot.
+     */
+    int append(long id, Encoded user) throws IOException {
+        int slot = recordCount;
+        writeRecord(slot, id, user);
+        writeHeader(slot + 1, blobEnd, Math.max(nextId, id + 1));
+        return slot;
+    }
+
+    /**
+     * Group commit: returns once the given slot is on disk. One force covers
+     * every record appended before it started, so concurrent writers waiting
+     * here share a single fsync instead of queueing one each.
+     */
+    void sync(int slot) {
+        if (!sync) {
+            return;
+        }
+        synchronized (syncLock) {
+            // A closed generation was either superseded by a compacted one that
+            // was forced before the switch, or shut down with a final force.
+            if (closed || slot < durableCount) {
+                return;
+            }
+            int covered = recordCount;
+            blobs.force();
+            records.force();
+            durableCount = covered;
+        }
+    }
+
+    StoredUser read(int slot) {
+        MappedByteBuffer records = this.records;
+        int offset = recordOffset(slot);
+        return new StoredUser(
+            records.getLong(offset + ID),
+            readBlob(records.getLong(offset + EMAIL)),
+            readBlob(records.getLong(offset + PASSWORD)),
+            Role.values()[records.getInt(offset + ROLE)],
+            readBlob(records.getLong(offset + REFRESH_TOKEN)),
+            toInstant(records.getLong(offset + REFRESH_TOKEN_EXPIRES_AT))
+        );
+    }
+
+    long id(int slot) {
+        return records.getLong(recordOffset(slot) + ID);
+    }
+
+    String email(int slot) {
+        return readBlob(records.getLong(recordOffset(slot) + EMAIL));
+    }
+
+    Role role(int slot) {
+        return Role.values()[records.getInt(recordOffset(slot) + ROLE)];
+    }
+
+    boolean hasRefreshToken(int slot) {
+        return records.getLong(recordOffset(slot) + REFRESH_TOKEN) != NULL_REF;
+    }
+
+    /**
+     * Epoch millis of the stored refresh token expiry, or Long.MIN_VALUE if none.
+     */
+    long refreshTokenExpiresAtMillis(int slot) {
+        return records.getLong(recordOffset(slot) + REFRESH_TOKEN_EXPIRES_AT);
+    }
+
+    boolean emailEquals(int slot, byte[] email) {
+        long ref = records.getLong(recordOffset(slot) + EMAIL);
+        if (ref == NULL_REF || refLength(ref) != email.length) {
+            return false;
+        }
+        MappedByteBuffer blobs = this.blobs;
+        int offset = (int) refOffset(ref);
+        for (int i = 0; i < email.length; i++) {
+            if (blobs.get(offset + i) != email[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the given records into a new generation next to this one and
+     * forces it, without switching to it. The caller can append records that
+     * arrived meanwhile, then activate() it.
+     */
+    MappedUserFile startNextGeneration(List<StoredUser> live) throws IOException {
+        MappedUserFile next = new MappedUserFile(directory, generation + 1, sync);
+        try {
+            next.create(nextId, live);
+        } catch (IOException | RuntimeException ex) {
+            next.closeAndDelete();
+            throw ex;
+        }
+        return next;
+    }
+
+    /**
+     * Makes this generation the one CURRENT names. The id sequence continues
+     * from at least minNextId, so ids are never reused.
+     */
+    void activate(long minNextId) throws IOException {
+        if (minNextId > nextId) {
+            writeHeader(recordCount, blobEnd, minNextId);
+        }
+        forceAll();
+
+        Path current = directory.resolve("CURRENT");
+        Path pending = directory.resolve("CURRENT.tmp");
+        Files.writeString(pending, Long.toString(generation));
+        try (FileChannel channel = FileChannel.open(pending, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(pending, current, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Closes this generation and deletes its files, after a newer generation
+     * has been activated or when this one was never activated.
+     */
+    void closeAndDelete() throws IOException {
+        close();
+        Files.deleteIfExists(recordPath(generation));
+        Files.deleteIfExists(blobPath(generation));
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (records != null) {
+                forceAll();
+            }
+            // The mappings are kept: they stay readable after the channels close.
+            if (recordChannel != null) {
+                recordChannel.close();
+            }
+            if (blobChannel != null) {
+                blobChannel.close();
+            }
+        }
+    }
+
+    private void create(long initialNextId, List<StoredUser> users) throws IOException {
+        long blobBytes = 0;
+        for (StoredUser user : users) {
+            blobBytes += blobLength(user.email()) + blobLength(user.password()) + blobLength(user.refreshToken());
+        }
+        Files.deleteIfExists(recordPath(generation));
+        Files.deleteIfExists(blobPath(generation));
+        mapFiles(
+            Math.max(MIN_RECORD_FILE_SIZE, RECORDS_START + 2L * users.size() * RECORD_SIZE),
+            Math.max(MIN_BLOB_FILE_SIZE, 2 * blobBytes)
+        );
+
+        sequence = 0;
+        recordCount = 0;
+        blobEnd = 0;
+        nextId = initialNextId;
+        long maxId = initialNextId - 1;
+        for (int slot = 0; slot < users.size(); slot++) {
+            StoredUser user = users.get(slot);
+            writeRecord(slot, user.id(), encode(user));
+            maxId = Math.max(maxId, user.id());
+        }
+        writeHeader(users.size(), blobEnd, maxId + 1);
+        forceAll();
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(recordPath(generation)) || !Files.exists(blobPath(generation))) {
+            throw new IOException("User store generation " + generation + " is missing in " + directory);
+        }
+        mapFiles(Files.size(recordPath(generation)), Files.size(blobPath(generation)));
+
+        int chosen = -1;
+        long chosenSequence = -1;
+        for (int header = 0; header < 2; header++) {
+            int offset = header * HEADER_SIZE;
+            boolean valid = records.getInt(offset + HEADER_MAGIC) == MAGIC
+                && records.getInt(offset + HEADER_VERSION) == VERSION
+                && records.getLong(offset + HEADER_CHECKSUM) == checksum(records, offset, HEADER_CHECKSUM);
+            if (valid && records.getLong(offset + HEADER_SEQUENCE) > chosenSequence) {
+                chosen = offset;
+                chosenSequence = records.getLong(offset + HEADER_SEQUENCE);
+            }
+        }
+        if (chosen < 0) {
+            throw new IOException("User store " + recordPath(generation) + " has no valid header");
+        }
+
+        sequence = chosenSequence;
+        blobEnd = records.getLong(chosen + HEADER_BLOB_END);
+        nextId = records.getLong(chosen + HEADER_NEXT_ID);
+        int headerCount = (int) records.getLong(chosen + HEADER_RECORD_COUNT);
+        int validCount = 0;
+        while (validCount < headerCount && isValid(validCount)) {
+            validCount++;
+        }
+        recordCount = headerCount;
+        if (validCount < headerCount) {
+            discardedOnOpen = headerCount - validCount;
+            writeHeader(validCount, blobEnd, nextId);
+            forceAll();
+        }
+        durableCount = recordCount;
+    }
+
+    private boolean isValid(int slot) {
+        int offset = recordOffset(slot);
+        if (records.getLong(offset + RECORD_CHECKSUM) != checksum(records, offset, RECORD_CHECKSUM)) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        for (int field : new int[] {EMAIL, PASSWORD, REFRESH_TOKEN}) {
+            long ref = records.getLong(offset + field);
+            if (ref == NULL_REF) {
+                continue;
+            }
+            if (refOffset(ref) + refLength(ref) > blobEnd) {
+                return false;
+            }
+            crc.update(blobs.slice((int) refOffset(ref), refLength(ref)));
+        }
+        return records.getInt(offset + BLOB_CHECKSUM) == (int) crc.getValue();
+    }
+
+    private void writeRecord(int slot, long id, Encoded user) throws IOException {
+        long emailRef = writeBlob(user.emailBytes());
+        long passwordRef = writeBlob(user.passwordBytes());
+        long refreshTokenRef = writeBlob(user.refreshTokenBytes());
+
+        long end = RECORDS_START + (long) (slot + 1) * RECORD_SIZE;
+        if (end > records.capacity()) {
+            remapRecords(end);
+        }
+        MappedByteBuffer records = this.records;
+        int offset = recordOffset(slot);
+        records.putLong(offset + ID, id);
+        records.putLong(offset + EMAIL, emailRef);
+        records.putLong(offset + PASSWORD, passwordRef);
+        records.putLong(offset + REFRESH_TOKEN, refreshTokenRef);
+        records.putLong(offset + REFRESH_TOKEN_EXPIRES_AT, user.refreshTokenExpiresAtMillis());
+        records.putInt(offset + ROLE, user.role().ordinal());
+        records.putInt(offset + BLOB_CHECKSUM, user.blobChecksum());
+        records.putLong(offset + RECORD_CHECKSUM, checksum(records, offset, RECORD_CHECKSUM));
+    }
+
+    private void writeHeader(int newRecordCount, long newBlobEnd, long newNextId) {
+        MappedByteBuffer records = this.records;
+        long newSequence = sequence + 1;
+        int offset = (int) (newSequence % 2) * HEADER_SIZE;
+        records.putInt(offset + HEADER_MAGIC, MAGIC);
+        records.putInt(offset + HEADER_VERSION, VERSION);
+        records.putLong(offset + HEADER_SEQUENCE, newSequence);
+        records.putLong(offset + HEADER_RECORD_COUNT, newRecordCount);
+        records.putLong(offset + HEADER_BLOB_END, newBlobEnd);
+        records.putLong(offset + HEADER_NEXT_ID, newNextId);
+        records.putLong(offset + HEADER_CHECKSUM, checksum(records, offset, HEADER_CHECKSUM));
+
+        sequence = newSequence;
+        blobEnd = newBlobEnd;
+        nextId = newNextId;
+        // Written last: readers of recordCount see the record bytes before it.
+        recordCount = newRecordCount;
+    }
+
+    private long writeBlob(byte[] bytes) throws IOException {
+        if (bytes == null) {
+            return NULL_REF;
+        }
+        if (bytes.length > MAX_BLOB_LENGTH) {
+            throw new IllegalArgumentException("Value too large for the user store");
+        }
+        if (blobEnd + bytes.length > blobs.capacity()) {
+            remapBlobs(blobEnd + bytes.length);
+        }
+        long ref = (blobEnd << 24) | bytes.length;
+        blobs.put((int) blobEnd, bytes);
+        blobEnd += bytes.length;
+        return ref;
+    }
+
+    private String readBlob(long ref) {
+        if (ref == NULL_REF) {
+            return null;
+        }
+        byte[] bytes = new byte[refLength(ref)];
+        blobs.get((int) refOffset(ref), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void forceAll() {
+        if (sync) {
+            blobs.force();
+            records.force();
+        }
+    }
+
+    private void mapFiles(long recordSize, long blobSize) throws IOException {
+        recordChannel = FileChannel.open(recordPath(generation),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        blobChannel = FileChannel.open(blobPath(generation),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        records = recordChannel.map(FileChannel.MapMode.READ_WRITE, 0, checkedSize(recordSize));
+        blobs = blobChannel.map(FileChannel.MapMode.READ_WRITE, 0, checkedSize(blobSize));
+    }
+
+    private void remapRecords(long needed) throws IOException {
+        records = recordChannel.map(FileChannel.MapMode.READ_WRITE, 0, grownSize(records.capacity(), needed));
+    }
+
+    private void remapBlobs(long needed) throws IOException {
+        blobs = blobChannel.map(FileChannel.MapMode.READ_WRITE, 0, grownSize(blobs.capacity(), needed));
+    }
+
+    private void deleteStaleGenerations() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.toList()) {
+                String name = path.getFileName().toString();
+                boolean generationFile = name.startsWith("users-") && (name.endsWith(".rec") || name.endsWith(".blob"));
+                if (generationFile && !path.equals(recordPath(generation)) && !path.equals(blobPath(generation))) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private Path recordPath(long gen) {
+        return directory.resolve("users-" + gen + ".rec");
+    }
+
+    private Path blobPath(long gen) {
+        return directory.resolve("users-" + gen + ".blob");
+    }
+
+    private int recordOffset(int slot) {
+        return RECORDS_START + slot * RECORD_SIZE;
+    }
+
+    private static long grownSize(long current, long needed) throws IOException {
+        return checkedSize(Math.max(needed, Math.min(MAX_FILE_SIZE, current * 2)));
+    }
+
+    private static long checkedSize(long size) throws IOException {
+        if (size > MAX_FILE_SIZE) {
+            throw new IOException("User store file would exceed " + MAX_FILE_SIZE + " bytes");
+        }
+        return size;
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int blobLength(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static long refOffset(long ref) {
+        return ref >>> 24;
+    }
+
+    private static int refLength(long ref) {
+        return (int) (ref & MAX_BLOB_LENGTH);
+    }
+
+    private static Instant toInstant(long epochMillis) {
+        return epochMillis == NULL_INSTANT ? null : Instant.ofEpochMilli(epochMillis);
+    }
+
+    private static long checksum(MappedByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return crc.getValue();
+    }
+}
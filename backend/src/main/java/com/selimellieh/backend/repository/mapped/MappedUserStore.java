@@ -0,0 +1,579 @@
+package com.selimellieh.backend.repository.mapped;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import com.selimellieh.backend.entity.Role;
+import com.selimellieh.backend.entity.User;
+import com.selimellieh.backend.repository.UserStore;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Embedded UserStore for edge deployments and local load tests, no Postgres needed.
+ *
+ * - Users live in a memory-mapped, append-only MappedUserFile under USER_STORE_PATH.
+ * - Lookups by email go through an in-memory open-addressing EmailIndex and read
+ *   the record straight from the mapping, with no query or network round trip.
+ *   They only wait for the few microseconds a writer needs to publish a slot.
+ * - Writes take the lock stripe of their email, which covers the uniqueness
+ *   check and encoding, so writers of different emails run in parallel. The
+ *   append itself is a short memory copy under commitLock; the read/write lock
+ *   is held only to publish the new slot. The fsync happens after all locks
+ *   are released, and concurrent writers share it (group commit).
+ * - Superseded record versions are compacted away on a background thread once
+ *   they outnumber live users. Writes and reads continue meanwhile; only
+ *   the final catch-up and switch briefly hold the locks.
+ *
+ * Enable with USER_STORE=mapped (see application-mapped.properties).
+ */
+@Component
+@ConditionalOnProperty(name = "USER_STORE", havingValue = "mapped")
+@Slf4j
+public class MappedUserStore implements UserStore {
+
+    private static final int STRIPES = 16;
+    private static final int NO_SLOT = -1;
+    private static final int COMPACTION_MIN_RECORDS = 4096;
+    private static final int SCAN_CHUNK = 4096;
+
+    private final EmailIndex emailIndex = new EmailIndex();
+    // Readers hold the read lock; publishing a slot or switching files takes the write lock.
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes appends to the file, which are short and never fsync.
+    private final ReentrantLock commitLock = new ReentrantLock();
+    // Serializes compaction with deleteAll, which both replace the file.
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-store-compaction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private MappedUserFile file;
+    // Latest record slot for each id (ids are dense, starting at 1).
+    private int[] slotById = new int[1024];
+    private int liveCount;
+    // After a failed compaction, wait for this many records before trying again.
+    private int compactionRetryAt;
+
+    public MappedUserStore(@Value("${USER_STORE_PATH:./data/users}") String path,
+                           @Value("${USER_STORE_SYNC:true}") boolean sync) throws IOException {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        Arrays.fill(slotById, NO_SLOT);
+        this.file = MappedUserFile.open(Path.of(path), sync);
+        if (file.discardedOnOpen() > 0) {
+            log.warn("Dropped {} torn records from the end of the user store", file.discardedOnOpen());
+        }
+        load();
+        log.info("Mapped user store opened at {} with {} users", path, liveCount);
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        lock.readLock().lock();
+        try {
+            int slot = slotForEmail(email);
+            return slot == NO_SLOT ? null : toUser(file.read(slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        lock.readLock().lock();
+        try {
+            return slotForEmail(email) != NO_SLOT;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public User save(User user) {
+        MappedUserFile.Encoded encoded = MappedUserFile.encode(toStored(user));
+        Pending pending;
+        ReentrantLock stripe = stripeFor(user.getEmail());
+        stripe.lock();
+        try {
+            long existingId;
+            lock.readLock().lock();
+            try {
+                existingId = idForEmail(user.getEmail());
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (existingId != 0 && !Long.valueOf(existingId).equals(user.getId())) {
+                throw new DataIntegrityViolationException("Email already registered");
+            }
+            pending = commit(user.getId(), encoded);
+        } finally {
+            stripe.unlock();
+        }
+        awaitDurable(pending);
+        return new User(
+            pending.id(),
+            user.getEmail(),
+            user.getPassword(),
+            user.getRole(),
+            user.getRefreshToken(),
+            user.getRefreshTokenExpiresAt()
+        );
+    }
+
+    @Override
+    public long count() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean createIfAbsent(String email, Role role, Credentials credentials) {
+        // Encoded outside the stripe; the uniqueness check and append happen under it.
+        MappedUserFile.Encoded encoded = MappedUserFile.encode(new StoredUser(
+            0,
+            email,
+            credentials.passwordHash(),
+            role,
+            credentials.refreshToken(),
+            credentials.refreshTokenExpiresAt()
+        ));
+        Pending pending;
+        ReentrantLock stripe = stripeFor(email);
+        stripe.lock();
+        try {
+            if (existsByEmail(email)) {
+                return false;
+            }
+            pending = commit(null, encoded);
+        } finally {
+            stripe.unlock();
+        }
+        awaitDurable(pending);
+        return true;
+    }
+
+    @Override
+    public void forEachEmail(Consumer<String> action) {
+        // Records are never rewritten in place, so a snapshot of the slots can be
+        // read without holding the lock, even if compaction switches files meanwhile.
+        MappedUserFile snapshotFile;
+        int[] snapshotSlots;
+        lock.readLock().lock();
+        try {
+            snapshotFile = file;
+            snapshotSlots = slotById.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (int slot : snapshotSlots) {
+            if (slot != NO_SLOT) {
+                action.accept(snapshotFile.email(slot));
+            }
+        }
+    }
+
+    @Override
+    public List<Long> findSessionIdsAfter(long afterId, Role role, String emailDomain, int limit) {
+        String emailSuffix = emailDomain != null ? "@" + emailDomain.toLowerCase(Locale.ROOT) : null;
+        return scanIds(afterId, limit, (current, slot) -> current.hasRefreshToken(slot)
+            && (role == null || current.role(slot) == role)
+            && (emailSuffix == null || current.email(slot).toLowerCase(Locale.ROOT).endsWith(emailSuffix)));
+    }
+
+    @Override
+    public int clearRefreshTokens(List<Long> ids) {
+        return clearRefreshTokensWhere(ids, Long.MAX_VALUE);
+    }
+
+    @Override
+    public boolean replaceRefreshToken(long id, String expectedToken, String newToken, Instant newExpiresAt) {
+        Pending pending;
+        // Compared against the latest version under commitLock, like clearRefreshTokensWhere.
+        commitLock.lock();
+        try {
+            int slot = slotFor(id);
+            if (slot == NO_SLOT) {
+                return false;
+            }
+            StoredUser current = file.read(slot);
+            if (!Objects.equals(current.refreshToken(), expectedToken)) {
+                return false;
+            }
+            pending = append(id, MappedUserFile.encode(current.withRefreshToken(newToken, newExpiresAt)));
+        } finally {
+            commitLock.unlock();
+        }
+        awaitDurable(pending);
+        return true;
+    }
+
+    @Override
+    public List<String> findEmailsByIds(List<Long> ids) {
+        List<String> emails = new ArrayList<>(ids.size());
+        lock.readLock().lock();
+        try {
+            for (Long id : ids) {
+                int slot = slotFor(id);
+                if (slot != NO_SLOT) {
+                    emails.add(file.email(slot));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return emails;
+    }
+
+    @Override
+    public List<Long> findExpiredRefreshTokenIdsAfter(long afterId, Instant now, int limit) {
+        long nowMillis = now.toEpochMilli();
+        return scanIds(afterId, limit, (current, slot) -> isExpiredBefore(current, slot, nowMillis));
+    }
+
+    @Override
+    public int clearExpiredRefreshTokens(List<Long> ids, Instant now) {
+        return clearRefreshTokensWhere(ids, now.toEpochMilli());
+    }
+
+    @Override
+    public void deleteAll() {
+        compactionLock.lock();
+        commitLock.lock();
+        try {
+            MappedUserFile previous = file;
+            MappedUserFile next = previous.startNextGeneration(List.of());
+            try {
+                next.activate(previous.nextId());
+            } catch (IOException | RuntimeException ex) {
+                next.closeAndDelete();
+                throw ex;
+            }
+            lock.writeLock().lock();
+            try {
+                file = next;
+                emailIndex.clear();
+                Arrays.fill(slotById, NO_SLOT);
+                liveCount = 0;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            previous.closeAndDelete();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            commitLock.unlock();
+            compactionLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        commitLock.lock();
+        lock.writeLock().lock();
+        try {
+            file.close();
+        } finally {
+            lock.writeLock().unlock();
+            commitLock.unlock();
+        }
+    }
+
+    // Clears tokens that expire before expiredBeforeMillis; Long.MAX_VALUE clears every token.
+    private int clearRefreshTokensWhere(List<Long> ids, long expiredBeforeMillis) {
+        int cleared = 0;
+        Pending last = null;
+        for (Long id : ids) {
+            // The condition is checked against the latest version under commitLock,
+            // so a token rotated concurrently is never cleared by mistake.
+            commitLock.lock();
+            try {
+                int slot = slotFor(id);
+                if (slot == NO_SLOT || !file.hasRefreshToken(slot)) {
+                    continue;
+                }
+                if (expiredBeforeMillis != Long.MAX_VALUE && !isExpiredBefore(file, slot, expiredBeforeMillis)) {
+                    continue;
+                }
+                last = append(id, MappedUserFile.encode(file.read(slot).withoutRefreshToken()));
+                cleared++;
+            } finally {
+                commitLock.unlock();
+            }
+        }
+        if (last != null) {
+            awaitDurable(last);
+        }
+        return cleared;
+    }
+
+    private static boolean isExpiredBefore(MappedUserFile current, int slot, long nowMillis) {
+        long expiresAt = current.refreshTokenExpiresAtMillis(slot);
+        return expiresAt != Long.MIN_VALUE && expiresAt < nowMillis;
+    }
+
+    private Pending commit(Long requestedId, MappedUserFile.Encoded user) {
+        commitLock.lock();
+        try {
+            return append(requestedId, user);
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    // Caller holds commitLock. The record is visible to readers on return but
+    // not yet durable; awaitDurable must run before the write is acknowledged.
+    private Pending append(Long requestedId, MappedUserFile.Encoded user) {
+        long id = requestedId != null ? requestedId : file.nextId();
+        if (id <= 0 || id >= Integer.MAX_VALUE) {
+            throw new IllegalStateException("User store id " + id + " is out of range");
+        }
+        int previousSlot = slotFor(id);
+        String previousEmail = previousSlot != NO_SLOT ? file.email(previousSlot) : null;
+        int slot;
+        try {
+            slot = file.append(id, user);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        lock.writeLock().lock();
+        try {
+            ensureIdCapacity(id);
+            slotById[(int) id] = slot;
+            if (previousEmail == null) {
+                emailIndex.put(user.email().hashCode(), id);
+                liveCount++;
+            } else if (!previousEmail.equals(user.email())) {
+                emailIndex.remove(previousEmail.hashCode(), existing -> existing == id);
+                emailIndex.put(user.email().hashCode(), id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scheduleCompactionIfWorthwhile();
+        return new Pending(file, slot, id);
+    }
+
+    private void awaitDurable(Pending pending) {
+        pending.file().sync(pending.slot());
+    }
+
+    // Caller holds commitLock.
+    private void scheduleCompactionIfWorthwhile() {
+        int records = file.recordCount();
+        if (records < COMPACTION_MIN_RECORDS || records < 2 * liveCount || records < compactionRetryAt) {
+            return;
+        }
+        if (compactionScheduled.compareAndSet(false, true)) {
+            compactor.execute(this::compact);
+        }
+    }
+
+    private void compact() {
+        compactionLock.lock();
+        try {
+            MappedUserFile current;
+            int[] snapshotSlots;
+            int snapshotCount;
+            commitLock.lock();
+            try {
+                current = file;
+                snapshotSlots = slotById.clone();
+                snapshotCount = current.recordCount();
+            } finally {
+                commitLock.unlock();
+            }
+
+            // Copy the live records without any lock; the slots are immutable.
+            List<StoredUser> live = new ArrayList<>();
+            for (int slot : snapshotSlots) {
+                if (slot != NO_SLOT) {
+                    live.add(current.read(slot));
+                }
+            }
+            MappedUserFile next = current.startNextGeneration(live);
+
+            int records;
+            commitLock.lock();
+            try {
+                records = current.recordCount();
+                int[] nextSlots = new int[slotById.length];
+                Arrays.fill(nextSlots, NO_SLOT);
+                // Live records were written in id order, one per slot.
+                for (int slot = 0; slot < live.size(); slot++) {
+                    nextSlots[(int) live.get(slot).id()] = slot;
+                }
+                // Catch up with writes that landed while the live records were copied.
+                for (int slot = snapshotCount; slot < records; slot++) {
+                    StoredUser user = current.read(slot);
+                    nextSlots[(int) user.id()] = next.append(user.id(), MappedUserFile.encode(user));
+                }
+                next.activate(current.nextId());
+
+                lock.writeLock().lock();
+                try {
+                    file = next;
+                    slotById = nextSlots;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                compactionRetryAt = 0;
+            } catch (IOException | RuntimeException ex) {
+                next.closeAndDelete();
+                throw ex;
+            } finally {
+                commitLock.unlock();
+            }
+            current.closeAndDelete();
+            log.info("Compacted user store from {} to {} records", records, next.recordCount());
+        } catch (IOException | RuntimeException ex) {
+            log.warn("User store compaction failed, keeping the current file: {}", ex.getMessage());
+            commitLock.lock();
+            try {
+                compactionRetryAt = file.recordCount() + COMPACTION_MIN_RECORDS;
+            } finally {
+                commitLock.unlock();
+            }
+        } finally {
+            compactionScheduled.set(false);
+            compactionLock.unlock();
+        }
+    }
+
+    // Scans ids in chunks, taking the read lock per chunk so a long scan never
+    // holds back writers publishing new slots.
+    private List<Long> scanIds(long afterId, int limit, SlotFilter filter) {
+        List<Long> ids = new ArrayList<>();
+        int id = (int) Math.min(Math.max(afterId + 1, 1), Integer.MAX_VALUE);
+        while (ids.size() < limit) {
+            lock.readLock().lock();
+            try {
+                int end = (int) Math.min(slotById.length, (long) id + SCAN_CHUNK);
+                if (id >= end) {
+                    break;
+                }
+                for (; id < end && ids.size() < limit; id++) {
+                    int slot = slotById[id];
+                    if (slot != NO_SLOT && filter.test(file, slot)) {
+                        ids.add((long) id);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return ids;
+    }
+
+    private void load() {
+        for (int slot = 0; slot < file.recordCount(); slot++) {
+            long id = file.id(slot);
+            ensureIdCapacity(id);
+            slotById[(int) id] = slot;
+        }
+        for (int id = 1; id < slotById.length; id++) {
+            if (slotById[id] != NO_SLOT) {
+                emailIndex.put(file.email(slotById[id]).hashCode(), id);
+                liveCount++;
+            }
+        }
+    }
+
+    // Caller holds the read or write lock, or commitLock.
+    private int slotForEmail(String email) {
+        long id = idForEmail(email);
+        return id == 0 ? NO_SLOT : slotById[(int) id];
+    }
+
+    private long idForEmail(String email) {
+        byte[] bytes = email.getBytes(StandardCharsets.UTF_8);
+        return emailIndex.find(email.hashCode(), id -> file.emailEquals(slotById[(int) id], bytes));
+    }
+
+    private int slotFor(long id) {
+        return id > 0 && id < slotById.length ? slotById[(int) id] : NO_SLOT;
+    }
+
+    // Caller holds the write lock.
+    private void ensureIdCapacity(long id) {
+        if (id >= Integer.MAX_VALUE) {
+            throw new IllegalStateException("User store id space exhausted");
+        }
+        if (id >= slotById.length) {
+            int oldLength = slotById.length;
+            slotById = Arrays.copyOf(slotById, (int) Math.max(id + 1, oldLength * 2L));
+            Arrays.fill(slotById, oldLength, slotById.length, NO_SLOT);
+        }
+    }
+
+    private ReentrantLock stripeFor(String email) {
+        return stripes[Math.floorMod(email.hashCode(), STRIPES)];
+    }
+
+    private static StoredUser toStored(User user) {
+        return new StoredUser(
+            user.getId() != null ? user.getId() : 0,
+            user.getEmail(),
+            user.getPassword(),
+            user.getRole(),
+            user.getRefreshToken(),
+            user.getRefreshTokenExpiresAt()
+        );
+    }
+
+    private static User toUser(StoredUser stored) {
+        return new User(
+            stored.id(),
+            stored.email(),
+            stored.password(),
+            stored.role(),
+            stored.refreshToken(),
+            stored.refreshTokenExpiresAt()
+        );
+    }
+
+    // A record appended to a file, to be made durable once the caller's locks are released.
+    private record Pending(MappedUserFile file, int slot, long id) {}
+
+    @FunctionalInterface
+    private interface SlotFilter {
+        boolean test(MappedUserFile file, int slot);
+    }
+}
@@ -0,0 +1,26 @@
+package com.selimellieh.backend.repository.mapped;
+
+import java.time.Instant;
+
+import com.selimellieh.backend.entity.Role;
+
+/**
+ * One version of a user as stored in MappedUserFile.
+ */
+record StoredUser(
+    long id,
+    String email,
+    String password,
+    Role role,
+    String refreshToken,
+    Instant refreshTokenExpiresAt
+) {
+
+    StoredUser withoutRefreshToken() {
+        return withRefreshToken(null, null);
+    }
+
+    StoredUser withRefreshToken(String token, Instant expiresAt) {
+        return new StoredUser(id, email, password, role, token, expiresAt);
+    }
+}
@@ -0,0 +1,49 @@
+package com.selimellieh.backend.security;
+
+import java.io.IOException;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Rejects introspection calls without a valid X-Introspection-Secret before the
+ * body is read, so unauthenticated callers cannot make the service parse and
+ * validate up to 100 tokens' worth of JSON.
+ */
+@Component
+public class IntrospectionCallerFilter extends OncePerRequestFilter {
+
+    static final String INTROSPECT_PATH = "/api/auth/introspect";
+    static final String SECRET_HEADER = "X-Introspection-Secret";
+
+    private final TokenIntrospectionService tokenIntrospectionService;
+
+    public IntrospectionCallerFilter(TokenIntrospectionService tokenIntrospectionService) {
+        this.tokenIntrospectionService = tokenIntrospectionService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().equals(request.getContextPath() + INTROSPECT_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        if (!tokenIntrospectionService.isTrustedCaller(request.getHeader(SECRET_HEADER))) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"message\":\"Unauthorized\"}");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
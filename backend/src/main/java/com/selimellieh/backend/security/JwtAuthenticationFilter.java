@@ -1,14 +1,20 @@
 package com.selimellieh.backend.security;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.selimellieh.backend.jfr.AuthPhaseEvent;
+import com.selimellieh.backend.jfr.AuthPhases;
+
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -29,28 +35,43 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
+        AuthPhaseEvent event = AuthPhases.begin(AuthPhases.FILTER, "authenticate");
         String authHeader = request.getHeader("Authorization");
 
         if (StringUtils.hasText(authHeader) && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
 
-            if (jwtUtil.validateToken(token)) {
-                String email = jwtUtil.getEmailFromToken(token);
+            // One verification yields both the subject and the role claim.
+            Claims claims = jwtUtil.parseClaims(token);
+            if (claims != null && jwtUtil.isAccessToken(claims)) {
+                String email = claims.getSubject();
 
                 if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                     UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(email, null, null);
+                        new UsernamePasswordAuthenticationToken(email, null, authoritiesFrom(claims));
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
+                AuthPhases.end(event, "authenticated");
             } else {
+                AuthPhases.end(event, "rejected");
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.setContentType("application/json");
                 response.getWriter().write("{\"message\":\"Invalid access token\"}");
                 return;
             }
+        } else {
+            AuthPhases.end(event, "anonymous");
         }
 
         filterChain.doFilter(request, response);
     }
+
+    private List<SimpleGrantedAuthority> authoritiesFrom(Claims claims) {
+        String role = claims.get(JwtUtil.ROLE_CLAIM, String.class);
+        if (role == null) {
+            return List.of();
+        }
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role));
+    }
 }
\ No newline at end of file
@@ -2,12 +2,20 @@ package com.selimellieh.backend.security;
 
 import java.nio.charset.StandardCharsets;
 import java.sql.Date;
+import java.time.Instant;
 
 import javax.crypto.SecretKey;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.selimellieh.backend.entity.Role;
+import com.selimellieh.backend.jfr.AuthPhaseEvent;
+import com.selimellieh.backend.jfr.AuthPhases;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -17,6 +25,11 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class JwtUtil {
 
+    public static final String ROLE_CLAIM = "role";
+    public static final String TYPE_CLAIM = "typ";
+    public static final String ACCESS_TYPE = "access";
+    public static final String REFRESH_TYPE = "refresh";
+
     @Value("${JWT_SECRET}")
     private String jwtSecret;
 
@@ -28,49 +41,116 @@ public class JwtUtil {
 
     private SecretKey key;
 
+    // JwtParser is immutable and thread-safe, so it is built once and shared.
+    private JwtParser parser;
+
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+            .verifyWith(key)
+            .build();
     }
 
-    public String generateAccessToken(String email) {
-        return generateToken(email, accessExpiration);
+    public String generateAccessToken(String email, Role role) {
+        return generateToken(email, role, ACCESS_TYPE, accessExpiration);
     }
 
     public String generateRefreshToken(String email) {
-        return generateToken(email, refreshExpiration);
+        return generateToken(email, null, REFRESH_TYPE, refreshExpiration);
+    }
+
+    /**
+     * Expiry to store alongside a refresh token issued just before this call.
+     * It is never earlier than the token's own exp claim.
+     */
+    public Instant refreshTokenExpiresAt() {
+        return Instant.now().plusMillis(refreshExpiration);
     }
 
     public String getEmailFromToken(String token) {
-        return Jwts.parser()
-            .verifyWith(key)
-            .build()
-            .parseSignedClaims(token)
-            .getPayload()
-            .getSubject();
+        return AuthPhases.record(
+            AuthPhases.TOKEN,
+            "subject",
+            () -> parser.parseSignedClaims(token)
+                .getPayload()
+                .getSubject(),
+            subject -> "valid"
+        );
     }
 
     public boolean validateToken(String token) {
+        AuthPhaseEvent event = AuthPhases.begin(AuthPhases.TOKEN, "validate");
         try {
-            Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
+            parser.parseSignedClaims(token)
                 .getPayload();
+            AuthPhases.end(event, "valid");
             return true;
         } catch (Exception e) {
+            AuthPhases.end(event, "invalid");
             log.error("Token validation failed: {}", e.getMessage());
             return false;
         }
     }
 
-    private String generateToken(String email, int expiration) {
+    /**
+     * Verifies the token and returns its claims, or null when the token is
+     * malformed, badly signed or expired. Unlike validateToken this does not
+     * log at error level, since callers such as batch introspection expect
+     * invalid tokens as a normal outcome.
+     */
+    public Claims parseClaims(String token) {
+        AuthPhaseEvent event = AuthPhases.begin(AuthPhases.TOKEN, "parse");
+        try {
+            Claims claims = parser.parseSignedClaims(token)
+                .getPayload();
+            AuthPhases.end(event, "valid");
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            AuthPhases.end(event, "invalid");
+            log.debug("Token rejected: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Access and refresh tokens are signed with the same key, so only the typ
+     * claim stops a refresh token from being presented as a bearer credential.
+     *
+     * Tokens issued before the typ claim existed carry none. Such a token is
+     * accepted only when its lifetime (exp - iat) is no longer than the access
+     * TTL, which refresh tokens never satisfy; since every token issued now is
+     * typed, untyped tokens stop being accepted one access TTL after deploy.
+     */
+    public boolean isAccessToken(Claims claims) {
+        String type = claims.get(TYPE_CLAIM, String.class);
+        if (type != null) {
+            return ACCESS_TYPE.equals(type);
+        }
+        if (claims.getIssuedAt() == null || claims.getExpiration() == null || refreshExpiration <= accessExpiration) {
+            return false;
+        }
+        long lifetime = claims.getExpiration().getTime() - claims.getIssuedAt().getTime();
+        return lifetime <= accessExpiration;
+    }
+
+    private String generateToken(String email, Role role, String type, int expiration) {
         long now = System.currentTimeMillis();
-        return Jwts.builder()
+        var builder = Jwts.builder()
             .subject(email)
+            .claim(TYPE_CLAIM, type)
             .issuedAt(new Date(now))
-            .expiration(new Date(now + expiration))
-            .signWith(key)
-            .compact();
+            .expiration(new Date(now + expiration));
+        if (role != null) {
+            builder.claim(ROLE_CLAIM, role.name());
+        }
+        return AuthPhases.record(
+            AuthPhases.TOKEN,
+            "sign",
+            () -> builder
+                .signWith(key)
+                .compact(),
+            signed -> "signed"
+        );
     }
 }
\ No newline at end of file
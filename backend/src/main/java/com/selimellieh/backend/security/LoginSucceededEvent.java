@@ -0,0 +1,8 @@
+package com.selimellieh.backend.security;
+
+/**
+ * Published after a successful password login, for listeners that observe
+ * logins without being wired into the auth endpoints (e.g. StartupReport).
+ */
+public record LoginSucceededEvent(String email) {
+}
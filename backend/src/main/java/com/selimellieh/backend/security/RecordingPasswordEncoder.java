@@ -0,0 +1,45 @@
+package com.selimellieh.backend.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.selimellieh.backend.jfr.AuthPhases;
+
+/**
+ * PasswordEncoder wrapper that records hashing and verification as JFR password events.
+ *
+ * - encode  -> outcome "hashed"
+ * - matches -> outcome "matched" or "mismatch"
+ */
+public class RecordingPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    public RecordingPasswordEncoder(PasswordEncoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return AuthPhases.record(
+            AuthPhases.PASSWORD,
+            "encode",
+            () -> delegate.encode(rawPassword),
+            hash -> "hashed"
+        );
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return AuthPhases.record(
+            AuthPhases.PASSWORD,
+            "matches",
+            () -> delegate.matches(rawPassword, encodedPassword),
+            matched -> matched ? "matched" : "mismatch"
+        );
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
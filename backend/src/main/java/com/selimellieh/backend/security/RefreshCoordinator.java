@@ -0,0 +1,169 @@
+package com.selimellieh.backend.security;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.selimellieh.backend.api.dto.auth.AuthResponse;
+import com.selimellieh.backend.api.dto.common.ErrorResponse;
+
+/**
+ * Coalesces concurrent refreshes of the same refresh token.
+ *
+ * Several browser tabs often notice an expired access token at the same time
+ * and all send the same refresh token. Without coordination the first request
+ * rotates it and the rest are rejected, logging the user out.
+ *
+ * - Callers presenting a token that is already being rotated wait for that
+ *   rotation and receive its result.
+ * - A successful rotation is remembered for a short grace window
+ *   (REFRESH_GRACE_MS), so stragglers get the same new token pair.
+ * - Waiters give up after REFRESH_WAIT_TIMEOUT_MS with a 503 and Retry-After,
+ *   so a stuck rotation cannot pin request threads; the retry usually hits
+ *   the grace window.
+ *
+ * One burst therefore costs one rotation and one DB write. The state is
+ * per instance; bursts spread across several instances are not coalesced.
+ */
+@Component
+public class RefreshCoordinator {
+
+    private static final int MAX_REMEMBERED_ROTATIONS = 10_000;
+
+    private final ConcurrentHashMap<String, CompletableFuture<ResponseEntity<?>>> inFlight = new ConcurrentHashMap<>();
+    // Insertion-ordered and every entry gets the same grace window, so the
+    // eldest entry is always the next to expire and is the one evicted when full.
+    private final Map<String, Rotation> recentRotations = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Rotation> eldest) {
+            return size() > MAX_REMEMBERED_ROTATIONS;
+        }
+    };
+
+    // Bumped by every forget, under the recentRotations lock. A rotation that
+    // overlapped a forget is not remembered: its session may just have been revoked.
+    private long forgetEpoch;
+
+    @Value("${REFRESH_GRACE_MS:10000}")
+    private long graceMillis;
+
+    @Value("${REFRESH_WAIT_TIMEOUT_MS:5000}")
+    private long waitTimeoutMillis;
+
+    public ResponseEntity<?> refresh(String refreshToken, Supplier<ResponseEntity<?>> rotation) {
+        ResponseEntity<?> recent = recentRotation(refreshToken);
+        if (recent != null) {
+            return recent;
+        }
+
+        CompletableFuture<ResponseEntity<?>> flight = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> existing = inFlight.putIfAbsent(refreshToken, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            // The previous leader may have finished between the first check and putIfAbsent.
+            ResponseEntity<?> result = recentRotation(refreshToken);
+            if (result == null) {
+                long epoch = currentForgetEpoch();
+                result = rotation.get();
+                if (result.getStatusCode().is2xxSuccessful() && result.getBody() instanceof AuthResponse rotated) {
+                    remember(refreshToken, rotated, epoch);
+                }
+            }
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(refreshToken, flight);
+        }
+    }
+
+    /**
+     * Drops remembered rotations for a user, so a logout also ends the grace window.
+     */
+    public void forget(String email) {
+        forget(Set.of(email));
+    }
+
+    /**
+     * Drops remembered rotations for several users in one pass, e.g. after each
+     * chunk of a bulk session revocation.
+     */
+    public void forget(Collection<String> emails) {
+        Set<String> forgotten = Set.copyOf(emails);
+        synchronized (recentRotations) {
+            forgetEpoch++;
+            recentRotations.values().removeIf(rotation -> forgotten.contains(rotation.response().email()));
+        }
+    }
+
+    private long currentForgetEpoch() {
+        synchronized (recentRotations) {
+            return forgetEpoch;
+        }
+    }
+
+    private ResponseEntity<?> recentRotation(String refreshToken) {
+        synchronized (recentRotations) {
+            Rotation rotation = recentRotations.get(refreshToken);
+            if (rotation == null) {
+                return null;
+            }
+            if (rotation.expiresAtMillis() > System.currentTimeMillis()) {
+                return ResponseEntity.ok(rotation.response());
+            }
+            recentRotations.remove(refreshToken);
+            return null;
+        }
+    }
+
+    private void remember(String refreshToken, AuthResponse response, long epoch) {
+        synchronized (recentRotations) {
+            if (epoch != forgetEpoch) {
+                return;
+            }
+            recentRotations.put(refreshToken, new Rotation(response, System.currentTimeMillis() + graceMillis));
+        }
+    }
+
+    private ResponseEntity<?> await(CompletableFuture<ResponseEntity<?>> flight) {
+        try {
+            return flight.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            return retryLater();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return retryLater();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private static ResponseEntity<?> retryLater() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(new ErrorResponse("Refresh already in progress, retry shortly"));
+    }
+
+    private record Rotation(AuthResponse response, long expiresAtMillis) {}
+}
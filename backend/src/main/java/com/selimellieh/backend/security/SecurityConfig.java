@@ -13,9 +13,12 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final IntrospectionCallerFilter introspectionCallerFilter;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
+                          IntrospectionCallerFilter introspectionCallerFilter) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.introspectionCallerFilter = introspectionCallerFilter;
     }
 
     @Bean
@@ -34,10 +37,18 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 // Permit login, refresh, and register endpoints
                 .requestMatchers("/api/auth/login", "/api/auth/refresh", "/api/auth/register").permitAll()
+                // Signup form email availability checks
+                .requestMatchers("/api/auth/email-availability").permitAll()
+                // Introspection callers authenticate with a shared secret, checked by IntrospectionCallerFilter
+                .requestMatchers("/api/auth/introspect").permitAll()
+                // Admin tools need the ADMIN role from the access token's role claim
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 // All other requests require authentication
                 .anyRequest().authenticated()
             )
-            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            // Runs first, so the secret is checked before any token or request body is parsed
+            .addFilterBefore(introspectionCallerFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
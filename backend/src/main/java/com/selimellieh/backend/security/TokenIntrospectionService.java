@@ -0,0 +1,122 @@
+package com.selimellieh.backend.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.selimellieh.backend.api.dto.auth.TokenIntrospection;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Batch token introspection for gateways and internal services.
+ *
+ * - Verifies tokens with the same JwtUtil parser the request filter uses.
+ * - Needs no database access: subject, role and expiry all come from the token.
+ * - Only access tokens are reported active; refresh tokens are not bearer credentials.
+ * - Caches active results until the token expires. Tokens are stateless, so a
+ *   verified token stays valid until then and the cached answer cannot go stale.
+ *   The cache is a ConcurrentHashMap, so concurrent introspections never queue
+ *   on a shared lock. When it is full, an insert samples a few entries and
+ *   evicts the expired ones, or else the one closest to expiry.
+ */
+@Component
+public class TokenIntrospectionService {
+
+    private static final int MAX_CACHED_TOKENS = 10_000;
+    private static final int EVICTION_SAMPLE_SIZE = 16;
+
+    private final JwtUtil jwtUtil;
+    private final Map<String, TokenIntrospection> cache = new ConcurrentHashMap<>();
+
+    @Value("${INTROSPECTION_SECRET:}")
+    private String introspectionSecret;
+
+    public TokenIntrospectionService(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+
+    /**
+     * Introspection is disabled (every caller rejected) until INTROSPECTION_SECRET is set.
+     */
+    public boolean isTrustedCaller(String presentedSecret) {
+        if (!StringUtils.hasText(introspectionSecret) || presentedSecret == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+            introspectionSecret.getBytes(StandardCharsets.UTF_8),
+            presentedSecret.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    public List<TokenIntrospection> introspect(List<String> tokens) {
+        Instant now = Instant.now();
+        List<TokenIntrospection> results = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            results.add(introspect(token, now));
+        }
+        return results;
+    }
+
+    private TokenIntrospection introspect(String token, Instant now) {
+        TokenIntrospection cached = cache.get(token);
+        if (cached != null) {
+            if (cached.expiresAt().isAfter(now)) {
+                return cached;
+            }
+            cache.remove(token, cached);
+        }
+
+        Claims claims = jwtUtil.parseClaims(token);
+        if (claims == null || claims.getExpiration() == null || !jwtUtil.isAccessToken(claims)) {
+            return TokenIntrospection.INACTIVE;
+        }
+
+        TokenIntrospection result = new TokenIntrospection(
+            true,
+            claims.getSubject(),
+            claims.get(JwtUtil.ROLE_CLAIM, String.class),
+            claims.getExpiration().toInstant()
+        );
+        if (cache.size() >= MAX_CACHED_TOKENS) {
+            evictSample(now);
+        }
+        cache.put(token, result);
+        return result;
+    }
+
+    /**
+     * Removes every expired entry among a small sample, or the sampled entry
+     * closest to expiry if none has expired. Concurrent inserts may briefly push
+     * the cache a little past MAX_CACHED_TOKENS; the next insert pulls it back.
+     */
+    private void evictSample(Instant now) {
+        String soonest = null;
+        Instant soonestExpiry = null;
+        boolean evicted = false;
+        Iterator<Map.Entry<String, TokenIntrospection>> it = cache.entrySet().iterator();
+        for (int sampled = 0; sampled < EVICTION_SAMPLE_SIZE && it.hasNext(); sampled++) {
+            Map.Entry<String, TokenIntrospection> entry = it.next();
+            Instant expiresAt = entry.getValue().expiresAt();
+            if (!expiresAt.isAfter(now)) {
+                it.remove();
+                evicted = true;
+            } else if (soonestExpiry == null || expiresAt.isBefore(soonestExpiry)) {
+                soonest = entry.getKey();
+                soonestExpiry = expiresAt;
+            }
+        }
+        if (!evicted && soonest != null) {
+            cache.remove(soonest);
+        }
+    }
+}
@@ -10,13 +10,15 @@ import org.springframework.util.StringUtils;
 
 import com.selimellieh.backend.entity.Role;
 import com.selimellieh.backend.entity.User;
-import com.selimellieh.backend.repository.UserRepository;
+import com.selimellieh.backend.repository.UserStore;
+import com.selimellieh.backend.signup.EmailAvailabilityService;
 
 @Component
 public class AdminUserSeeder {
 
-    private final UserRepository userRepository;
+    private final UserStore userStore;
     private final PasswordEncoder passwordEncoder;
+    private final EmailAvailabilityService emailAvailabilityService;
 
     @Value("${ADMIN_EMAIL:}")
     private String adminEmail;
@@ -24,9 +26,12 @@ public class AdminUserSeeder {
     @Value("${ADMIN_PASSWORD:}")
     private String adminPassword;
 
-    public AdminUserSeeder(UserRepository userRepository, PasswordEncoder passwordEncoder) {
-        this.userRepository = userRepository;
+    public AdminUserSeeder(UserStore userStore,
+                           PasswordEncoder passwordEncoder,
+                           EmailAvailabilityService emailAvailabilityService) {
+        this.userStore = userStore;
         this.passwordEncoder = passwordEncoder;
+        this.emailAvailabilityService = emailAvailabilityService;
     }
 
     @EventListener(ApplicationReadyEvent.class)
@@ -34,13 +39,14 @@ public class AdminUserSeeder {
         if (!StringUtils.hasText(adminEmail) || !StringUtils.hasText(adminPassword)) {
             return;
         }
-        if (userRepository.findByEmail(adminEmail) != null) {
+        if (userStore.findByEmail(adminEmail) != null) {
             return;
         }
 
         User adminUser = new User(adminEmail, passwordEncoder.encode(adminPassword), Role.ADMIN);
         try {
-            userRepository.save(adminUser);
+            userStore.save(adminUser);
+            emailAvailabilityService.recordRegistered(adminEmail);
         } catch (DataIntegrityViolationException ignored) {
             // Ignore if the admin user already exists
         }
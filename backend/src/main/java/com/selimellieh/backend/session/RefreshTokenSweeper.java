@@ -0,0 +1,101 @@
+package com.selimellieh.backend.session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.selimellieh.backend.repository.UserStore;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically clears refresh tokens whose stored expiry has passed.
+ *
+ * - Finds expired rows through refresh_token_expires_at, no JWT parsing.
+ * - Clears them in small id-ordered (keyset) batches, each in its own short
+ *   transaction, pausing REFRESH_SWEEP_PAUSE_MS between batches.
+ * - Keeps totals and the last sweep's result for /api/admin/sessions/sweeper.
+ */
+@Component
+@Slf4j
+public class RefreshTokenSweeper {
+
+    private final UserStore userStore;
+
+    @Value("${REFRESH_SWEEP_BATCH_SIZE:200}")
+    private int batchSize;
+
+    @Value("${REFRESH_SWEEP_PAUSE_MS:100}")
+    private long pauseMillis;
+
+    private long sweeps;
+    private long totalReclaimed;
+    private long lastReclaimed;
+    private Duration lastDuration = Duration.ZERO;
+    private Instant lastFinishedAt;
+
+    public RefreshTokenSweeper(UserStore userStore) {
+        this.userStore = userStore;
+    }
+
+    @Scheduled(
+        initialDelayString = "${REFRESH_SWEEP_INTERVAL_MS:600000}",
+        fixedDelayString = "${REFRESH_SWEEP_INTERVAL_MS:600000}"
+    )
+    public void sweep() {
+        long start = System.nanoTime();
+        Instant now = Instant.now();
+        long reclaimed = 0;
+        long afterId = 0;
+
+        try {
+            while (true) {
+                List<Long> ids = userStore.findExpiredRefreshTokenIdsAfter(
+                    afterId,
+                    now,
+                    batchSize
+                );
+                if (ids.isEmpty()) {
+                    break;
+                }
+
+                reclaimed += userStore.clearExpiredRefreshTokens(ids, now);
+                afterId = ids.get(ids.size() - 1);
+                if (ids.size() < batchSize) {
+                    break;
+                }
+                TimeUnit.MILLISECONDS.sleep(pauseMillis);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            record(reclaimed, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    public synchronized SweepStats getStats() {
+        return new SweepStats(sweeps, totalReclaimed, lastReclaimed, lastDuration.toMillis(), lastFinishedAt);
+    }
+
+    private synchronized void record(long reclaimed, Duration duration) {
+        sweeps++;
+        totalReclaimed += reclaimed;
+        lastReclaimed = reclaimed;
+        lastDuration = duration;
+        lastFinishedAt = Instant.now();
+        log.info("Refresh token sweep reclaimed {} rows in {} ms", reclaimed, duration.toMillis());
+    }
+
+    public record SweepStats(
+        long sweeps,
+        long totalReclaimed,
+        long lastReclaimed,
+        long lastDurationMillis,
+        Instant lastFinishedAt
+    ) {}
+}
@@ -0,0 +1,130 @@
+package com.selimellieh.backend.session;
+
+import java.time.Instant;
+
+import com.selimellieh.backend.entity.Role;
+
+/**
+ * Progress of one bulk session revocation. Written by the revocation worker
+ * thread and read by API requests, so state changes are synchronized.
+ */
+public class RevocationJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    private final String id;
+    private final RevocationScope scope;
+    private final Role role;
+    private final String emailDomain;
+    private final Instant createdAt = Instant.now();
+
+    private Status status = Status.QUEUED;
+    private boolean cancelRequested;
+    private long revokedSessions;
+    private int chunks;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+
+    RevocationJob(String id, RevocationScope scope, Role role, String emailDomain) {
+        this.id = id;
+        this.scope = scope;
+        this.role = role;
+        this.emailDomain = emailDomain;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public RevocationScope getScope() {
+        return scope;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public String getEmailDomain() {
+        return emailDomain;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    public synchronized long getRevokedSessions() {
+        return revokedSessions;
+    }
+
+    public synchronized int getChunks() {
+        return chunks;
+    }
+
+    public synchronized Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public synchronized Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+
+    public synchronized boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.CANCELLED || status == Status.FAILED;
+    }
+
+    synchronized boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * Returns false if the job was cancelled while still queued.
+     */
+    synchronized boolean markRunning() {
+        if (cancelRequested) {
+            return false;
+        }
+        status = Status.RUNNING;
+        startedAt = Instant.now();
+        return true;
+    }
+
+    synchronized void recordChunk(int revoked) {
+        revokedSessions += revoked;
+        chunks++;
+    }
+
+    synchronized void requestCancel() {
+        if (isFinished()) {
+            return;
+        }
+        cancelRequested = true;
+        if (status == Status.QUEUED) {
+            finish(Status.CANCELLED);
+        }
+    }
+
+    synchronized void fail(String message) {
+        error = message;
+        finish(Status.FAILED);
+    }
+
+    synchronized void finish(Status finalStatus) {
+        status = finalStatus;
+        finishedAt = Instant.now();
+    }
+}
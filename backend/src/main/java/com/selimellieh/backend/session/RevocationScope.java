@@ -0,0 +1,7 @@
+package com.selimellieh.backend.session;
+
+public enum RevocationScope {
+    ALL,
+    ROLE,
+    EMAIL_DOMAIN
+}
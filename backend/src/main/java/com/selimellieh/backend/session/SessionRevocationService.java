@@ -0,0 +1,152 @@
+package com.selimellieh.backend.session;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.selimellieh.backend.entity.Role;
+import com.selimellieh.backend.repository.UserStore;
+import com.selimellieh.backend.security.RefreshCoordinator;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk session revocation for incident response.
+ *
+ * - Jobs run one at a time on a dedicated background thread.
+ * - Each chunk is a keyset select of user ids plus one set-based update of
+ *   refresh_token, in its own short transaction, so only a bounded set of
+ *   rows is locked at any time.
+ * - REVOCATION_MAX_ROWS_PER_SECOND paces the chunks so login traffic keeps
+ *   its share of the database.
+ * - Cancellation is checked between chunks.
+ * - After each chunk, RefreshCoordinator forgets the revoked users' recent
+ *   rotations, so the grace window cannot hand their sessions back.
+ */
+@Component
+@Slf4j
+public class SessionRevocationService {
+
+    private static final int MAX_TRACKED_JOBS = 50;
+
+    private final UserStore userStore;
+    private final RefreshCoordinator refreshCoordinator;
+    private final ConcurrentHashMap<String, RevocationJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "session-revocation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${REVOCATION_CHUNK_SIZE:500}")
+    private int chunkSize;
+
+    @Value("${REVOCATION_MAX_ROWS_PER_SECOND:2000}")
+    private int maxRowsPerSecond;
+
+    public SessionRevocationService(UserStore userStore, RefreshCoordinator refreshCoordinator) {
+        this.userStore = userStore;
+        this.refreshCoordinator = refreshCoordinator;
+    }
+
+    public RevocationJob start(RevocationScope scope, Role role, String emailDomain) {
+        RevocationJob job = new RevocationJob(
+            UUID.randomUUID().toString(),
+            scope,
+            scope == RevocationScope.ROLE ? role : null,
+            scope == RevocationScope.EMAIL_DOMAIN ? emailDomain.toLowerCase(Locale.ROOT) : null
+        );
+        evictOldJobs();
+        jobs.put(job.getId(), job);
+        executor.execute(() -> run(job));
+        return job;
+    }
+
+    public RevocationJob get(String id) {
+        return jobs.get(id);
+    }
+
+    public RevocationJob cancel(String id) {
+        RevocationJob job = jobs.get(id);
+        if (job != null) {
+            job.requestCancel();
+        }
+        return job;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(RevocationJob::requestCancel);
+        executor.shutdownNow();
+    }
+
+    private void run(RevocationJob job) {
+        if (!job.markRunning()) {
+            return;
+        }
+        log.info("Session revocation {} started (scope={}, role={}, domain={})",
+            job.getId(), job.getScope(), job.getRole(), job.getEmailDomain());
+
+        long afterId = 0;
+        try {
+            while (!job.isCancelRequested()) {
+                long chunkStart = System.nanoTime();
+                List<Long> ids = userStore.findSessionIdsAfter(
+                    afterId,
+                    job.getRole(),
+                    job.getEmailDomain(),
+                    chunkSize
+                );
+                if (ids.isEmpty()) {
+                    job.finish(RevocationJob.Status.COMPLETED);
+                    return;
+                }
+
+                job.recordChunk(userStore.clearRefreshTokens(ids));
+                refreshCoordinator.forget(userStore.findEmailsByIds(ids));
+                afterId = ids.get(ids.size() - 1);
+                throttle(ids.size(), chunkStart);
+            }
+            job.finish(RevocationJob.Status.CANCELLED);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            job.finish(RevocationJob.Status.CANCELLED);
+        } catch (RuntimeException ex) {
+            log.error("Session revocation {} failed", job.getId(), ex);
+            job.fail(ex.getMessage());
+        } finally {
+            log.info("Session revocation {} finished as {} after revoking {} sessions",
+                job.getId(), job.getStatus(), job.getRevokedSessions());
+        }
+    }
+
+    private void throttle(int rows, long chunkStartNanos) throws InterruptedException {
+        long minimumNanos = TimeUnit.SECONDS.toNanos(rows) / Math.max(1, maxRowsPerSecond);
+        long remainingNanos = minimumNanos - (System.nanoTime() - chunkStartNanos);
+        if (remainingNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(remainingNanos);
+        }
+    }
+
+    private void evictOldJobs() {
+        if (jobs.size() < MAX_TRACKED_JOBS) {
+            return;
+        }
+        jobs.values().stream()
+            .filter(RevocationJob::isFinished)
+            .sorted(Comparator.comparing(RevocationJob::getCreatedAt))
+            .limit(jobs.size() - MAX_TRACKED_JOBS + 1L)
+            .map(RevocationJob::getId)
+            .toList()
+            .forEach(jobs::remove);
+    }
+}
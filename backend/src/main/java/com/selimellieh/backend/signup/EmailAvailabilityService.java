@@ -0,0 +1,101 @@
+package com.selimellieh.backend.signup;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.selimellieh.backend.jfr.AuthPhases;
+import com.selimellieh.backend.repository.UserStore;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Answers "is this email free?" for the signup form, mostly without I/O.
+ *
+ * - An in-memory Bloom filter of registered emails is built at startup by
+ *   streaming every stored email, and updated on every registration.
+ * - "Definitely absent" answers come straight from the filter; only
+ *   "maybe present" answers fall back to an indexed existsByEmail query.
+ * - Emails registered through another instance are only picked up by the
+ *   periodic rebuild (EMAIL_INDEX_REBUILD_INTERVAL_MS), so the answer is
+ *   advisory; registration itself stays authoritative.
+ */
+@Component
+@Slf4j
+public class EmailAvailabilityService {
+
+    private final UserStore userStore;
+
+    @Value("${EMAIL_INDEX_EXPECTED_USERS:1000000}")
+    private long expectedUsers;
+
+    @Value("${EMAIL_INDEX_FALSE_POSITIVE_RATE:0.01}")
+    private double falsePositiveRate;
+
+    // Serves lookups once built; null until the first build completes.
+    private volatile EmailBloomFilter index;
+
+    // Filter being rebuilt; registrations are added to it as well so none are lost.
+    private volatile EmailBloomFilter building;
+
+    public EmailAvailabilityService(UserStore userStore) {
+        this.userStore = userStore;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+        initialDelayString = "${EMAIL_INDEX_REBUILD_INTERVAL_MS:900000}",
+        fixedDelayString = "${EMAIL_INDEX_REBUILD_INTERVAL_MS:900000}"
+    )
+    public void rebuild() {
+        long start = System.nanoTime();
+        EmailBloomFilter filter = new EmailBloomFilter(expectedUsers, falsePositiveRate);
+        building = filter;
+        LongAdder count = new LongAdder();
+        try {
+            userStore.forEachEmail(email -> {
+                filter.add(email);
+                count.increment();
+            });
+        } catch (RuntimeException ex) {
+            building = null;
+            throw ex;
+        }
+        // Publish before clearing building: a registration that no longer sees
+        // building is then guaranteed to see the new index.
+        index = filter;
+        building = null;
+        log.info("Email index built with {} emails ({} KB) in {} ms",
+            count.sum(), filter.sizeInBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void recordRegistered(String email) {
+        // Read building before index, the reverse of the order rebuild() writes them.
+        EmailBloomFilter next = building;
+        EmailBloomFilter current = index;
+        if (next != null) {
+            next.add(email);
+        }
+        if (current != null) {
+            current.add(email);
+        }
+    }
+
+    public boolean isAvailable(String email) {
+        EmailBloomFilter current = index;
+        if (current != null && !current.mightContain(email)) {
+            return true;
+        }
+        boolean exists = AuthPhases.record(
+            AuthPhases.QUERY,
+            "existsByEmail",
+            () -> userStore.existsByEmail(email),
+            found -> found ? "found" : "none"
+        );
+        return !exists;
+    }
+}
@@ -0,0 +1,72 @@
+package com.selimellieh.backend.signup;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-client limit on email availability checks, so the unauthenticated
+ * endpoint cannot be used to enumerate registered emails at scale.
+ *
+ * - Fixed one-minute windows keyed by client address,
+ *   EMAIL_AVAILABILITY_MAX_PER_MINUTE checks each (0 disables the limit).
+ * - At most MAX_TRACKED_CLIENTS windows are kept. Stale ones are purged at
+ *   most once per window; if the map is still full, new clients are refused,
+ *   which only costs the advisory check since registration is not throttled.
+ */
+@Component
+public class EmailAvailabilityThrottle {
+
+    static final long WINDOW_MILLIS = 60_000;
+    static final int MAX_TRACKED_CLIENTS = 100_000;
+
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicLong lastPurgedWindow = new AtomicLong();
+    private final int maxPerMinute;
+
+    public EmailAvailabilityThrottle(@Value("${EMAIL_AVAILABILITY_MAX_PER_MINUTE:30}") int maxPerMinute) {
+        this.maxPerMinute = maxPerMinute;
+    }
+
+    public boolean tryAcquire(String client) {
+        return tryAcquire(client, System.currentTimeMillis());
+    }
+
+    boolean tryAcquire(String client, long nowMillis) {
+        if (maxPerMinute <= 0) {
+            return true;
+        }
+        long windowStart = nowMillis - nowMillis % WINDOW_MILLIS;
+        Window window = windows.get(client);
+        if (window == null || window.start != windowStart) {
+            if (window == null && windows.size() >= MAX_TRACKED_CLIENTS && !purgeStale(windowStart)) {
+                return false;
+            }
+            window = windows.compute(client, (key, existing) ->
+                existing == null || existing.start != windowStart ? new Window(windowStart) : existing);
+        }
+        return window.count.incrementAndGet() <= maxPerMinute;
+    }
+
+    // Returns whether there is room for another client afterwards.
+    private boolean purgeStale(long windowStart) {
+        long previous = lastPurgedWindow.get();
+        if (previous != windowStart && lastPurgedWindow.compareAndSet(previous, windowStart)) {
+            windows.values().removeIf(window -> window.start != windowStart);
+        }
+        return windows.size() < MAX_TRACKED_CLIENTS;
+    }
+
+    private static final class Window {
+
+        private final long start;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private Window(long start) {
+            this.start = start;
+        }
+    }
+}
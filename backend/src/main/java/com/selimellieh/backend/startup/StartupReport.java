@@ -0,0 +1,71 @@
+package com.selimellieh.backend.startup;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.selimellieh.backend.security.LoginSucceededEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logs how long the service took to become useful.
+ *
+ * - Context startup and warmup time once the application is ready.
+ * - Time from JVM start to the first successful login, observed through
+ *   LoginSucceededEvent so the auth endpoints do not depend on this class.
+ */
+@Component
+@Slf4j
+public class StartupReport {
+
+    private final AtomicBoolean firstLoginRecorded = new AtomicBoolean();
+
+    // Null until the application is ready.
+    private volatile Duration warmup;
+    private volatile boolean warmupCompleted;
+    private volatile long firstLoginUptimeMillis = -1;
+
+    public void recordReady(Duration contextStartup, Duration warmup, boolean warmupCompleted) {
+        this.warmupCompleted = warmupCompleted;
+        this.warmup = warmup;
+        log.info(
+            "Startup report: context started in {} ms, warmup took {} ms{}, ready {} ms after JVM start",
+            contextStartup.toMillis(),
+            warmup.toMillis(),
+            warmupCompleted ? "" : " (skipped or incomplete)",
+            jvmUptimeMillis()
+        );
+    }
+
+    @EventListener
+    public void onLogin(LoginSucceededEvent event) {
+        if (firstLoginRecorded.get() || !firstLoginRecorded.compareAndSet(false, true)) {
+            return;
+        }
+        firstLoginUptimeMillis = jvmUptimeMillis();
+        log.info("Startup report: first successful login {} ms after JVM start", firstLoginUptimeMillis);
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public boolean isWarmupCompleted() {
+        return warmupCompleted;
+    }
+
+    /**
+     * Milliseconds from JVM start to the first successful login, or -1 if none yet.
+     */
+    public long getFirstLoginUptimeMillis() {
+        return firstLoginUptimeMillis;
+    }
+
+    private long jvmUptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,101 @@
+package com.selimellieh.backend.startup;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.selimellieh.backend.entity.Role;
+import com.selimellieh.backend.repository.UserStore;
+import com.selimellieh.backend.security.JwtUtil;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exercises the login hot path before the application reports ready.
+ *
+ * Spring Boot only switches readiness to ACCEPTING_TRAFFIC after the
+ * ApplicationReadyEvent listeners return, so running here means the first
+ * real logins no longer pay for class loading, JIT and lazy bean creation of
+ * JwtUtil, the password encoder and the findByEmail query.
+ */
+@Component
+@Slf4j
+public class StartupWarmup {
+
+    private static final String WARMUP_EMAIL = "warmup@startup.invalid";
+    private static final String WARMUP_PASSWORD = "warmup-password";
+    private static final int PASSWORD_MATCHES = 3;
+
+    private final JwtUtil jwtUtil;
+    private final PasswordEncoder passwordEncoder;
+    private final UserStore userStore;
+    private final StartupReport startupReport;
+
+    @Value("${WARMUP_ENABLED:false}")
+    private boolean enabled;
+
+    @Value("${WARMUP_ITERATIONS:200}")
+    private int iterations;
+
+    public StartupWarmup(JwtUtil jwtUtil,
+                         PasswordEncoder passwordEncoder,
+                         UserStore userStore,
+                         StartupReport startupReport) {
+        this.jwtUtil = jwtUtil;
+        this.passwordEncoder = passwordEncoder;
+        this.userStore = userStore;
+        this.startupReport = startupReport;
+    }
+
+    // Runs before the other ready listeners (e.g. AdminUserSeeder) so they hit warm code too.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void warmUp(ApplicationReadyEvent event) {
+        Duration contextStartup = event.getTimeTaken() != null ? event.getTimeTaken() : Duration.ZERO;
+        if (!enabled) {
+            startupReport.recordReady(contextStartup, Duration.ZERO, false);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            warmUpTokens();
+            warmUpPasswordEncoder();
+            warmUpUserLookup();
+            completed = true;
+        } catch (Exception ex) {
+            // A failed warmup only costs latency, never availability.
+            log.warn("Startup warmup did not complete: {}", ex.getMessage());
+        }
+        startupReport.recordReady(contextStartup, Duration.ofNanos(System.nanoTime() - start), completed);
+    }
+
+    private void warmUpTokens() {
+        for (int i = 0; i < iterations; i++) {
+            String token = jwtUtil.generateAccessToken(WARMUP_EMAIL, Role.USER);
+            jwtUtil.validateToken(token);
+            jwtUtil.getEmailFromToken(token);
+        }
+    }
+
+    private void warmUpPasswordEncoder() {
+        String hash = passwordEncoder.encode(WARMUP_PASSWORD);
+        for (int i = 0; i < PASSWORD_MATCHES; i++) {
+            passwordEncoder.matches(WARMUP_PASSWORD, hash);
+        }
+    }
+
+    private void warmUpUserLookup() {
+        int lookups = Math.max(1, iterations / 10);
+        for (int i = 0; i < lookups; i++) {
+            userStore.findByEmail(WARMUP_EMAIL);
+        }
+    }
+}
@@ -5,10 +5,25 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
@@ -23,7 +38,16 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.selimellieh.backend.entity.Role;
 import com.selimellieh.backend.entity.User;
-import com.selimellieh.backend.repository.UserRepository;
+import com.selimellieh.backend.jfr.AuthPhaseEvent;
+import com.selimellieh.backend.repository.UserStore;
+import com.selimellieh.backend.session.RefreshTokenSweeper;
+import com.selimellieh.backend.signup.EmailAvailabilityService;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 @SpringBootTest(properties = {
 	"spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
@@ -34,12 +58,14 @@ import com.selimellieh.backend.repository.UserRepository;
 	"spring.jpa.show-sql=false",
 	"JWT_SECRET=TestJwtSecretKeyForLocalTestsOnly1234567890",
 	"ACCESS_EXPIRATION=3600000",
-	"REFRESH_EXPIRATION=86400000"
+	"REFRESH_EXPIRATION=86400000",
+	"INTROSPECTION_SECRET=TestIntrospectionSecret"
 })
 class BackendApplicationTests {
 
 	private static final String TEST_EMAIL = "test.user@example.com";
 	private static final String TEST_PASSWORD = "testpassword";
+	private static final String ADMIN_EMAIL = "test.admin@example.com";
 
 	private MockMvc mockMvc;
 
@@ -49,15 +75,21 @@ class BackendApplicationTests {
 	private final ObjectMapper objectMapper = new ObjectMapper();
 
 	@Autowired
-	private UserRepository userRepository;
+	private UserStore userStore;
 
 	@Autowired
 	private PasswordEncoder passwordEncoder;
 
+	@Autowired
+	private RefreshTokenSweeper refreshTokenSweeper;
+
+	@Autowired
+	private EmailAvailabilityService emailAvailabilityService;
+
 	@BeforeEach
 	void setup() {
-		userRepository.deleteAll();
-		userRepository.save(new User(TEST_EMAIL, passwordEncoder.encode(TEST_PASSWORD), Role.USER));
+		userStore.deleteAll();
+		userStore.save(new User(TEST_EMAIL, passwordEncoder.encode(TEST_PASSWORD), Role.USER));
 		this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
 			.apply(springSecurity())
 			.build();
@@ -109,7 +141,139 @@ class BackendApplicationTests {
 		);
 
 		assertThat(response.get("email")).isEqualTo("new.user@example.com");
-		assertThat(userRepository.findByEmail("new.user@example.com")).isNotNull();
+		assertThat(userStore.findByEmail("new.user@example.com")).isNotNull();
+	}
+
+	@Test
+	void registerRejectsExistingEmailWithConflict() throws Exception {
+		Map<String, String> payload = Map.of(
+			"email", TEST_EMAIL,
+			"password", "anotherpassword"
+		);
+
+		mockMvc.perform(
+			post("/api/auth/register")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(payload))
+		)
+			.andExpect(status().isConflict());
+
+		User user = userStore.findByEmail(TEST_EMAIL);
+		assertThat(passwordEncoder.matches(TEST_PASSWORD, user.getPassword())).isTrue();
+	}
+
+	@Test
+	void concurrentRegistrationsOfOneEmailCreateOneAccount() throws Exception {
+		String payload = objectMapper.writeValueAsString(Map.of(
+			"email", "racing.user@example.com",
+			"password", "racingpassword"
+		));
+
+		int callers = 2;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		List<Integer> statuses = new ArrayList<>();
+		try {
+			List<Future<Integer>> futures = new ArrayList<>();
+			for (int i = 0; i < callers; i++) {
+				Callable<Integer> call = () -> {
+					start.await();
+					return mockMvc.perform(
+						post("/api/auth/register")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(payload)
+					).andReturn().getResponse().getStatus();
+				};
+				futures.add(executor.submit(call));
+			}
+			start.countDown();
+			for (Future<Integer> future : futures) {
+				statuses.add(future.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(statuses).containsExactlyInAnyOrder(201, 409);
+		assertThat(userStore.findByEmail("racing.user@example.com")).isNotNull();
+	}
+
+	@Test
+	void authEndpointsEmitPhaseEvents(@TempDir Path tempDir) throws Exception {
+		List<RecordedEvent> events;
+		try (Recording recording = new Recording()) {
+			recording.enable(AuthPhaseEvent.NAME).withThreshold(Duration.ZERO);
+			recording.start();
+			loginAndGetTokens(TEST_EMAIL, TEST_PASSWORD);
+			mockMvc.perform(
+				post("/api/auth/register")
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(objectMapper.writeValueAsString(Map.of(
+						"email", "recorded.user@example.com",
+						"password", "recordedpassword"
+					)))
+			)
+				.andExpect(status().isCreated());
+			recording.stop();
+			Path file = tempDir.resolve("auth-phases.jfr");
+			recording.dump(file);
+			events = RecordingFile.readAllEvents(file);
+		}
+
+		RecordedEvent loginPassword = singlePhaseEvent(events, "POST /api/auth/login", "password", "matches");
+		assertThat(loginPassword.getString("outcome")).isEqualTo("matched");
+
+		// The BCrypt hash must not be counted as query time: it ends before the insert starts.
+		RecordedEvent hash = singlePhaseEvent(events, "POST /api/auth/register", "password", "encode");
+		RecordedEvent insert = singlePhaseEvent(events, "POST /api/auth/register", "query", "insertIfAbsent");
+		assertThat(insert.getString("outcome")).isEqualTo("created");
+		assertThat(hash.getEndTime()).isBeforeOrEqualTo(insert.getStartTime());
+	}
+
+	@Test
+	void emailAvailabilityReflectsRegistrations() throws Exception {
+		String email = "fresh.user@example.com";
+		assertThat(getEmailAvailability(email)).isTrue();
+
+		mockMvc.perform(
+			post("/api/auth/register")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(Map.of("email", email, "password", "newpassword")))
+		)
+			.andExpect(status().isCreated());
+
+		assertThat(getEmailAvailability(email)).isFalse();
+	}
+
+	@Test
+	void emailIndexRebuildPicksUpUsersStoredDirectly() {
+		String email = "imported.user@example.com";
+		// Bypasses registration, like a user created by another instance.
+		userStore.save(new User(email, passwordEncoder.encode(TEST_PASSWORD), Role.USER));
+		assertThat(emailAvailabilityService.isAvailable(email)).isTrue();
+
+		emailAvailabilityService.rebuild();
+
+		assertThat(emailAvailabilityService.isAvailable(email)).isFalse();
+		assertThat(emailAvailabilityService.isAvailable("still.free@example.com")).isTrue();
+	}
+
+	@Test
+	void emailAvailabilityIsThrottledPerClient() throws Exception {
+		int lastStatus = 0;
+		for (int i = 0; i <= 30; i++) {
+			lastStatus = mockMvc.perform(
+				get("/api/auth/email-availability")
+					.param("email", "probe" + i + "@example.com")
+					.with(request -> {
+						request.setRemoteAddr("203.0.113.7");
+						return request;
+					})
+			).andReturn().getResponse().getStatus();
+		}
+
+		assertThat(lastStatus).isEqualTo(429);
+		assertThat(getEmailAvailability("other.client@example.com")).isTrue();
 	}
 
 	@Test
@@ -137,6 +301,55 @@ class BackendApplicationTests {
 		assertThat(response.get("email")).isEqualTo(TEST_EMAIL);
 	}
 
+	@Test
+	void refreshWithinGraceWindowReturnsSameTokens() throws Exception {
+		Map<String, Object> loginResponse = loginAndGetTokens(TEST_EMAIL, TEST_PASSWORD);
+		String refreshToken = (String) loginResponse.get("refreshToken");
+
+		Map<String, Object> first = refreshAndGetTokens(refreshToken);
+		Map<String, Object> second = refreshAndGetTokens(refreshToken);
+
+		assertThat(second.get("refreshToken")).isEqualTo(first.get("refreshToken"));
+		assertThat(second.get("accessToken")).isEqualTo(first.get("accessToken"));
+		assertThat(userStore.findByEmail(TEST_EMAIL).getRefreshToken()).isEqualTo(first.get("refreshToken"));
+	}
+
+	@Test
+	void concurrentRefreshesShareOneRotation() throws Exception {
+		Map<String, Object> loginResponse = loginAndGetTokens(TEST_EMAIL, TEST_PASSWORD);
+		String refreshToken = (String) loginResponse.get("refreshToken");
+
+		int callers = 8;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		List<Map<String, Object>> responses = new ArrayList<>();
+		try {
+			List<Future<Map<String, Object>>> futures = new ArrayList<>();
+			for (int i = 0; i < callers; i++) {
+				Callable<Map<String, Object>> call = () -> {
+					start.await();
+					return refreshAndGetTokens(refreshToken);
+				};
+				futures.add(executor.submit(call));
+			}
+			start.countDown();
+			for (Future<Map<String, Object>> future : futures) {
+				responses.add(future.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// A second rotation would either reject the stragglers (the stored token no
+		// longer matches) or hand them a different pair.
+		Map<String, Object> first = responses.get(0);
+		assertThat(responses).allSatisfy(response -> {
+			assertThat(response.get("refreshToken")).isEqualTo(first.get("refreshToken"));
+			assertThat(response.get("accessToken")).isEqualTo(first.get("accessToken"));
+		});
+		assertThat(userStore.findByEmail(TEST_EMAIL).getRefreshToken()).isEqualTo(first.get("refreshToken"));
+	}
+
 	@Test
 	void meReturnsAuthenticatedUser() throws Exception {
 		Map<String, Object> loginResponse = loginAndGetTokens(TEST_EMAIL, TEST_PASSWORD);
@@ -169,10 +382,252 @@ class BackendApplicationTests {
 		)
 			.andExpect(status().isOk());
 
-		User user = userRepository.findByEmail(TEST_EMAIL);
+		User user = userStore.findByEmail(TEST_EMAIL);
 		assertThat(user.getRefreshToken()).isNull();
 	}
 
+	@Test
+	void introspectReportsActiveAndInvalidTokens() throws Exception {
+		Map<String, Object> loginResponse = loginAndGetTokens(TEST_EMAIL, TEST_PASSWORD);
+		String accessToken = (String) loginResponse.get("accessToken");
+		String refreshToken = (String) loginResponse.get("refreshToken");
+
+		Map<String, Object> payload = Map.of("tokens", List.of(accessToken, refreshToken, "not-a-token"));
+
+		MvcResult result = mockMvc.perform(
+			post("/api/auth/introspect")
+				.header("X-Introspection-Secret", "TestIntrospectionSecret")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(payload))
+		)
+			.andExpect(status().isOk())
+			.andReturn();
+
+		Map<String, List<Map<String, Object>>> response = objectMapper.readValue(
+			result.getResponse().getContentAsString(),
+			new TypeReference<Map<String, List<Map<String, Object>>>>() {}
+		);
+
+		List<Map<String, Object>> tokens = response.get("tokens");
+		assertThat(tokens).hasSize(3);
+		assertThat(tokens.get(0).get("active")).isEqualTo(true);
+		assertThat(tokens.get(0).get("subject")).isEqualTo(TEST_EMAIL);
+		assertThat(tokens.get(0).get("role")).isEqualTo(Role.USER.name());
+		assertThat(tokens.get(0).get("expiresAt")).isNotNull();
+		assertThat(tokens.get(1).get("active")).isEqualTo(false);
+		assertThat(tokens.get(2).get("active")).isEqualTo(false);
+	}
+
+	@Test
+	void introspectRejectsUnknownCaller() throws Exception {
+		Map<String, Object> payload = Map.of("tokens", List.of("not-a-token"));
+
+		mockMvc.perform(
+			post("/api/auth/introspect")
+				.header("X-Introspection-Secret", "wrong-secret")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(payload))
+		)
+			.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void introspectChecksSecretBeforeReadingBody() throws Exception {
+		// An invalid body would be a 400 if it were validated before the secret.
+		mockMvc.perform(
+			post("/api/auth/introspect")
+				.header("X-Introspection-Secret", "wrong-secret")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"tokens\":[]}")
+		)
+			.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void untypedTokensAreActiveOnlyWithAnAccessLifetime() throws Exception {
+		// Tokens issued before the typ claim existed: same key, no typ, no role.
+		String legacyAccess = untypedToken(TEST_EMAIL, 3600000);
+		String legacyRefresh = untypedToken(TEST_EMAIL, 86400000);
+
+		MvcResult result = mockMvc.perform(
+			post("/api/auth/introspect")
+				.header("X-Introspection-Secret", "TestIntrospectionSecret")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(Map.of("tokens", List.of(legacyAccess, legacyRefresh))))
+		)
+			.andExpect(status().isOk())
+			.andReturn();
+
+		Map<String, List<Map<String, Object>>> response = objectMapper.readValue(
+			result.getResponse().getContentAsString(),
+			new TypeReference<Map<String, List<Map<String, Object>>>>() {}
+		);
+		assertThat(response.get("tokens").get(0).get("active")).isEqualTo(true);
+		assertThat(response.get("tokens").get(1).get("active")).isEqualTo(false);
+	}
+
+	@Test
+	void adminRevokesSessionsForRole() throws Exception {
+		userStore.save(new User(ADMIN_EMAIL, passwordEncoder.encode(TEST_PASSWORD), Role.ADMIN));
+		loginAndGetTokens(TEST_EMAIL, TEST_PASSWORD);
+		String adminToken = (String) loginAndGetTokens(ADMIN_EMAIL, TEST_PASSWORD).get("accessToken");
+
+		String jobId = startRoleRevocation(adminToken, Role.USER);
+		Map<String, Object> job = awaitRevocation(adminToken, jobId);
+
+		assertThat(job.get("status")).isEqualTo("COMPLETED");
+		assertThat(userStore.findByEmail(TEST_EMAIL).getRefreshToken()).isNull();
+		assertThat(userStore.findByEmail(ADMIN_EMAIL).getRefreshToken()).isNotNull();
+	}
+
+	@Test
+	void revocationWinsOverConcurrentRefreshes() throws Exception {
+		userStore.save(new User(ADMIN_EMAIL, passwordEncoder.encode(TEST_PASSWORD), Role.ADMIN));
+		String adminToken = (String) loginAndGetTokens(ADMIN_EMAIL, TEST_PASSWORD).get("accessToken");
+		AtomicReference<String> latest = new AtomicReference<>(
+			(String) loginAndGetTokens(TEST_EMAIL, TEST_PASSWORD).get("refreshToken")
+		);
+
+		// Refreshes back to back until one is rejected, so some rotation is always
+		// racing the revocation's clear.
+		CountDownLatch refreshing = new CountDownLatch(3);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Integer> loop = executor.submit(() -> {
+				long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+				while (System.nanoTime() < deadline) {
+					MvcResult result = performRefresh(latest.get());
+					if (result.getResponse().getStatus() != 200) {
+						return result.getResponse().getStatus();
+					}
+					latest.set((String) objectMapper.readValue(
+						result.getResponse().getContentAsString(),
+						new TypeReference<Map<String, Object>>() {}
+					).get("refreshToken"));
+					refreshing.countDown();
+				}
+				return 200;
+			});
+			assertThat(refreshing.await(10, TimeUnit.SECONDS)).isTrue();
+
+			Map<String, Object> job = awaitRevocation(adminToken, startRoleRevocation(adminToken, Role.USER));
+
+			assertThat(job.get("status")).isEqualTo("COMPLETED");
+			assertThat(loop.get(30, TimeUnit.SECONDS)).isEqualTo(401);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(userStore.findByEmail(TEST_EMAIL).getRefreshToken()).isNull();
+		assertThat(performRefresh(latest.get()).getResponse().getStatus()).isEqualTo(401);
+	}
+
+	@Test
+	void adminEndpointsRejectRegularUsers() throws Exception {
+		String accessToken = (String) loginAndGetTokens(TEST_EMAIL, TEST_PASSWORD).get("accessToken");
+
+		mockMvc.perform(
+			post("/api/admin/sessions/revocations")
+				.header("Authorization", "Bearer " + accessToken)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(Map.of("scope", "ALL")))
+		)
+			.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void sweeperClearsOnlyExpiredRefreshTokens() throws Exception {
+		User expired = new User(ADMIN_EMAIL, passwordEncoder.encode(TEST_PASSWORD), Role.ADMIN);
+		expired.setRefreshToken("expired-refresh-token");
+		expired.setRefreshTokenExpiresAt(Instant.now().minusSeconds(60));
+		userStore.save(expired);
+		loginAndGetTokens(TEST_EMAIL, TEST_PASSWORD);
+
+		refreshTokenSweeper.sweep();
+
+		User swept = userStore.findByEmail(ADMIN_EMAIL);
+		assertThat(swept.getRefreshToken()).isNull();
+		assertThat(swept.getRefreshTokenExpiresAt()).isNull();
+		assertThat(userStore.findByEmail(TEST_EMAIL).getRefreshToken()).isNotNull();
+		assertThat(refreshTokenSweeper.getStats().lastReclaimed()).isEqualTo(1);
+	}
+
+	private boolean getEmailAvailability(String email) throws Exception {
+		MvcResult result = mockMvc.perform(
+			get("/api/auth/email-availability").param("email", email)
+		)
+			.andExpect(status().isOk())
+			.andReturn();
+
+		Map<String, Object> response = objectMapper.readValue(
+			result.getResponse().getContentAsString(),
+			new TypeReference<Map<String, Object>>() {}
+		);
+		return (Boolean) response.get("available");
+	}
+
+	private MvcResult performRefresh(String refreshToken) throws Exception {
+		return mockMvc.perform(
+			post("/api/auth/refresh")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(Map.of("refreshToken", refreshToken)))
+		).andReturn();
+	}
+
+	private String startRoleRevocation(String adminToken, Role role) throws Exception {
+		MvcResult started = mockMvc.perform(
+			post("/api/admin/sessions/revocations")
+				.header("Authorization", "Bearer " + adminToken)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(Map.of("scope", "ROLE", "role", role.name())))
+		)
+			.andExpect(status().isAccepted())
+			.andReturn();
+
+		return (String) objectMapper.readValue(
+			started.getResponse().getContentAsString(),
+			new TypeReference<Map<String, Object>>() {}
+		).get("id");
+	}
+
+	// Polls the job until it leaves QUEUED/RUNNING or ten seconds pass.
+	private Map<String, Object> awaitRevocation(String adminToken, String jobId) throws Exception {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		Map<String, Object> job;
+		do {
+			MvcResult progress = mockMvc.perform(
+				get("/api/admin/sessions/revocations/" + jobId)
+					.header("Authorization", "Bearer " + adminToken)
+			)
+				.andExpect(status().isOk())
+				.andReturn();
+			job = objectMapper.readValue(
+				progress.getResponse().getContentAsString(),
+				new TypeReference<Map<String, Object>>() {}
+			);
+			if (!"QUEUED".equals(job.get("status")) && !"RUNNING".equals(job.get("status"))) {
+				return job;
+			}
+			Thread.sleep(20);
+		} while (System.nanoTime() < deadline);
+		return job;
+	}
+
+	private Map<String, Object> refreshAndGetTokens(String refreshToken) throws Exception {
+		MvcResult result = mockMvc.perform(
+			post("/api/auth/refresh")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(Map.of("refreshToken", refreshToken)))
+		)
+			.andExpect(status().isOk())
+			.andReturn();
+
+		return objectMapper.readValue(
+			result.getResponse().getContentAsString(),
+			new TypeReference<Map<String, Object>>() {}
+		);
+	}
+
 	private Map<String, Object> loginAndGetTokens(String email, String password) throws Exception {
 		Map<String, String> payload = Map.of(
 			"email", email,
@@ -192,4 +647,25 @@ class BackendApplicationTests {
 			new TypeReference<Map<String, Object>>() {}
 		);
 	}
+
+	private String untypedToken(String email, long lifetimeMillis) {
+		long now = System.currentTimeMillis();
+		return Jwts.builder()
+			.subject(email)
+			.issuedAt(new Date(now))
+			.expiration(new Date(now + lifetimeMillis))
+			.signWith(Keys.hmacShaKeyFor("TestJwtSecretKeyForLocalTestsOnly1234567890".getBytes(StandardCharsets.UTF_8)))
+			.compact();
+	}
+
+	private static RecordedEvent singlePhaseEvent(List<RecordedEvent> events, String endpoint, String phase, String operation) {
+		List<RecordedEvent> matching = events.stream()
+			.filter(event -> AuthPhaseEvent.NAME.equals(event.getEventType().getName()))
+			.filter(event -> endpoint.equals(event.getString("endpoint")))
+			.filter(event -> phase.equals(event.getString("phase")))
+			.filter(event -> operation.equals(event.getString("operation")))
+			.toList();
+		assertThat(matching).hasSize(1);
+		return matching.get(0);
+	}
 }
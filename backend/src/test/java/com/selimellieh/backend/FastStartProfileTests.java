@@ -0,0 +1,84 @@
+package com.selimellieh.backend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimellieh.backend.entity.Role;
+import com.selimellieh.backend.entity.User;
+import com.selimellieh.backend.repository.UserStore;
+import com.selimellieh.backend.startup.StartupReport;
+
+/**
+ * Boots with the faststart profile (lazy beans, WARMUP_ENABLED=true) and checks
+ * that the warmup ran and that only the first login is reported.
+ */
+@ActiveProfiles("faststart")
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:faststartdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+	"spring.datasource.driverClassName=org.h2.Driver",
+	"spring.datasource.username=sa",
+	"spring.datasource.password=",
+	"spring.jpa.hibernate.ddl-auto=create-drop",
+	"JWT_SECRET=TestJwtSecretKeyForLocalTestsOnly1234567890",
+	"ACCESS_EXPIRATION=3600000",
+	"REFRESH_EXPIRATION=86400000",
+	"INTROSPECTION_SECRET=TestIntrospectionSecret",
+	"WARMUP_ITERATIONS=5"
+})
+class FastStartProfileTests {
+
+	private static final String EMAIL = "faststart.user@example.com";
+	private static final String PASSWORD = "faststartpassword";
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	@Autowired
+	private StartupReport startupReport;
+
+	@Autowired
+	private UserStore userStore;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void warmupRunsAndFirstLoginIsReportedOnce() throws Exception {
+		assertThat(startupReport.isWarmupCompleted()).isTrue();
+		assertThat(startupReport.getWarmup()).isPositive();
+		assertThat(startupReport.getFirstLoginUptimeMillis()).isEqualTo(-1);
+
+		userStore.deleteAll();
+		userStore.save(new User(EMAIL, passwordEncoder.encode(PASSWORD), Role.USER));
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+			.apply(springSecurity())
+			.build();
+		String payload = objectMapper.writeValueAsString(Map.of("email", EMAIL, "password", PASSWORD));
+
+		mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(payload))
+			.andExpect(status().isOk());
+		long firstLogin = startupReport.getFirstLoginUptimeMillis();
+		assertThat(firstLogin).isPositive();
+
+		mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(payload))
+			.andExpect(status().isOk());
+		assertThat(startupReport.getFirstLoginUptimeMillis()).isEqualTo(firstLogin);
+	}
+}
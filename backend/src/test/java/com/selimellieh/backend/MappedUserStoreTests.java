@@ -0,0 +1,16 @@
+package com.selimellieh.backend;
+
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the full BackendApplicationTests suite against MappedUserStore, with the
+ * mapped profile so the app starts without a datasource or JPA, as deployed.
+ */
+@ActiveProfiles("mapped")
+@TestPropertySource(properties = {
+	"USER_STORE_PATH=target/test-user-store",
+	"USER_STORE_SYNC=false"
+})
+class MappedUserStoreTests extends BackendApplicationTests {
+}
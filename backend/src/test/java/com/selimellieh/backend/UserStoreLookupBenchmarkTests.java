@@ -0,0 +1,119 @@
+package com.selimellieh.backend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.selimellieh.backend.entity.Role;
+import com.selimellieh.backend.entity.User;
+import com.selimellieh.backend.repository.UserStore;
+import com.selimellieh.backend.repository.mapped.MappedUserStore;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares findByEmail latency of the default JPA store on Postgres and
+ * MappedUserStore on the same data set, and checks the mapped store is faster.
+ *
+ * Needs a real Postgres, so it is skipped unless BENCHMARK_DB_URL is set. The
+ * users table is dropped and recreated: point it at a throwaway database, e.g.
+ * BENCHMARK_DB_URL=jdbc:postgresql://localhost:5432/benchmark with the
+ * docker-compose db service (BENCHMARK_DB_USER / BENCHMARK_DB_PASSWORD).
+ */
+@Slf4j
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_DB_URL", matches = ".+")
+@SpringBootTest(properties = {
+	"spring.datasource.url=${BENCHMARK_DB_URL}",
+	"spring.datasource.username=${BENCHMARK_DB_USER:admin}",
+	"spring.datasource.password=${BENCHMARK_DB_PASSWORD:}",
+	"spring.jpa.hibernate.ddl-auto=create-drop",
+	"spring.jpa.show-sql=false",
+	"JWT_SECRET=TestJwtSecretKeyForLocalTestsOnly1234567890",
+	"ACCESS_EXPIRATION=3600000",
+	"REFRESH_EXPIRATION=86400000",
+	"INTROSPECTION_SECRET=TestIntrospectionSecret"
+})
+class UserStoreLookupBenchmarkTests {
+
+	private static final int USERS = 10_000;
+	private static final int WARMUP_LOOKUPS = 20_000;
+	private static final int MEASURED_LOOKUPS = 50_000;
+	// A fixed BCrypt-shaped value; hashing is not what is being measured.
+	private static final String PASSWORD_HASH = "$2a$10$abcdefghijklmnopqrstuuQ0uYBGd6Vv0l5HhV5mmuHnSe7yK1Yq";
+
+	@Autowired
+	private UserStore jpaUserStore;
+
+	@TempDir
+	private Path storeDirectory;
+
+	@Test
+	void mappedLookupsBeatPostgres() throws IOException {
+		jpaUserStore.deleteAll();
+		long[] jpa;
+		long[] mapped;
+		MappedUserStore mappedUserStore = new MappedUserStore(storeDirectory.toString(), false);
+		try {
+			for (int i = 0; i < USERS; i++) {
+				jpaUserStore.save(new User(email(i), PASSWORD_HASH, Role.USER));
+				mappedUserStore.save(new User(email(i), PASSWORD_HASH, Role.USER));
+			}
+
+			jpa = measure(jpaUserStore);
+			mapped = measure(mappedUserStore);
+		} finally {
+			mappedUserStore.close();
+			jpaUserStore.deleteAll();
+		}
+
+		report("jpa", jpa);
+		report("mapped", mapped);
+		// Every Postgres lookup is a network round trip; a mapped lookup is a hash probe.
+		assertThat(percentile(mapped, 0.50)).isLessThan(percentile(jpa, 0.50));
+		assertThat(percentile(mapped, 0.99)).isLessThan(percentile(jpa, 0.99));
+	}
+
+	private static long[] measure(UserStore store) {
+		Random random = new Random(42);
+		for (int i = 0; i < WARMUP_LOOKUPS; i++) {
+			store.findByEmail(email(random.nextInt(USERS)));
+		}
+
+		long[] nanos = new long[MEASURED_LOOKUPS];
+		for (int i = 0; i < MEASURED_LOOKUPS; i++) {
+			String email = email(random.nextInt(USERS));
+			long start = System.nanoTime();
+			User user = store.findByEmail(email);
+			nanos[i] = System.nanoTime() - start;
+			assertThat(user).isNotNull();
+		}
+		Arrays.sort(nanos);
+		return nanos;
+	}
+
+	private static void report(String name, long[] sortedNanos) {
+		log.info("{} findByEmail over {} lookups: p50={}us p99={}us max={}us",
+			name,
+			sortedNanos.length,
+			percentile(sortedNanos, 0.50) / 1000.0,
+			percentile(sortedNanos, 0.99) / 1000.0,
+			sortedNanos[sortedNanos.length - 1] / 1000.0);
+	}
+
+	private static long percentile(long[] sortedNanos, double p) {
+		return sortedNanos[(int) (sortedNanos.length * p)];
+	}
+
+	private static String email(int i) {
+		return "bench.user" + i + "@example.com";
+	}
+}
@@ -0,0 +1,62 @@
+package com.selimellieh.backend.jfr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Aggregation in AuthPhaseReport, fed from a real recording. Operation names are
+ * unique to this test so events from anything else running in the JVM are ignored.
+ */
+class AuthPhaseReportTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void summarizeGroupsByEndpointPhaseAndOperation() throws Exception {
+		List<RecordedEvent> events;
+		try (Recording recording = new Recording()) {
+			recording.enable(AuthPhaseEvent.NAME).withThreshold(Duration.ZERO);
+			recording.start();
+			for (int i = 0; i < 4; i++) {
+				emit(AuthPhases.PASSWORD, "report-test-matches", "matched");
+			}
+			emit(AuthPhases.PASSWORD, "report-test-matches", "mismatch");
+			emit(AuthPhases.QUERY, "report-test-find", "found");
+			recording.stop();
+			Path file = tempDir.resolve("auth-phases.jfr");
+			recording.dump(file);
+			events = RecordingFile.readAllEvents(file);
+		}
+
+		Map<String, AuthPhaseReport.Phase> phases = AuthPhaseReport.summarize(events);
+
+		// Outside a request the endpoint is "-".
+		AuthPhaseReport.Phase matches = phases.get("- | password | report-test-matches");
+		assertThat(matches).isNotNull();
+		assertThat(matches.count()).isEqualTo(5);
+		assertThat(matches.outcomes()).containsExactly(Map.entry("matched", 4), Map.entry("mismatch", 1));
+		assertThat(matches.percentileMillis(0.50)).isLessThanOrEqualTo(matches.percentileMillis(0.99));
+		assertThat(matches.percentileMillis(0.99)).isLessThanOrEqualTo(matches.maxMillis());
+
+		AuthPhaseReport.Phase find = phases.get("- | query | report-test-find");
+		assertThat(find).isNotNull();
+		assertThat(find.count()).isEqualTo(1);
+		assertThat(find.outcomes()).containsExactly(Map.entry("found", 1));
+	}
+
+	private static void emit(String phase, String operation, String outcome) {
+		AuthPhases.end(AuthPhases.begin(phase, operation), outcome);
+	}
+}
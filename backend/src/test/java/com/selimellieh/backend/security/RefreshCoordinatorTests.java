@@ -0,0 +1,67 @@
+package com.selimellieh.backend.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.selimellieh.backend.api.dto.auth.AuthResponse;
+
+class RefreshCoordinatorTests {
+
+	private static final String TOKEN = "refresh-token";
+
+	private RefreshCoordinator coordinator;
+
+	@BeforeEach
+	void setup() {
+		coordinator = new RefreshCoordinator();
+		ReflectionTestUtils.setField(coordinator, "graceMillis", 10_000L);
+		ReflectionTestUtils.setField(coordinator, "waitTimeoutMillis", 100L);
+	}
+
+	@Test
+	void waiterGivesUpOnAStuckRotationWith503() throws Exception {
+		CountDownLatch rotating = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<ResponseEntity<?>> leader = CompletableFuture.supplyAsync(() ->
+			coordinator.refresh(TOKEN, () -> {
+				rotating.countDown();
+				await(release);
+				return ResponseEntity.ok(new AuthResponse("access", "next-refresh", "user@example.com"));
+			})
+		);
+		assertThat(rotating.await(5, TimeUnit.SECONDS)).isTrue();
+
+		ResponseEntity<?> waiter = coordinator.refresh(TOKEN, () -> {
+			throw new AssertionError("a waiter must not rotate");
+		});
+		assertThat(waiter.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(waiter.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+		// Once the rotation finishes, a retry is answered from the grace window.
+		release.countDown();
+		assertThat(leader.get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+		ResponseEntity<?> retry = coordinator.refresh(TOKEN, () -> {
+			throw new AssertionError("the retry must reuse the rotation");
+		});
+		assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(((AuthResponse) retry.getBody()).refreshToken()).isEqualTo("next-refresh");
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
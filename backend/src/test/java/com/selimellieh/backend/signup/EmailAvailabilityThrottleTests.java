@@ -0,0 +1,31 @@
+package com.selimellieh.backend.signup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class EmailAvailabilityThrottleTests {
+
+	private static final long NOW = 10 * EmailAvailabilityThrottle.WINDOW_MILLIS;
+
+	@Test
+	void limitsEachClientPerWindow() {
+		EmailAvailabilityThrottle throttle = new EmailAvailabilityThrottle(3);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(throttle.tryAcquire("10.0.0.1", NOW + i)).isTrue();
+		}
+		assertThat(throttle.tryAcquire("10.0.0.1", NOW + 3)).isFalse();
+		assertThat(throttle.tryAcquire("10.0.0.2", NOW + 3)).isTrue();
+		assertThat(throttle.tryAcquire("10.0.0.1", NOW + EmailAvailabilityThrottle.WINDOW_MILLIS)).isTrue();
+	}
+
+	@Test
+	void zeroDisablesTheLimit() {
+		EmailAvailabilityThrottle throttle = new EmailAvailabilityThrottle(0);
+
+		for (int i = 0; i < 1_000; i++) {
+			assertThat(throttle.tryAcquire("10.0.0.1", NOW)).isTrue();
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package com.selimellieh.backend.signup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class EmailBloomFilterTests {
+
+	private static final int USERS = 20_000;
+	private static final double FALSE_POSITIVE_RATE = 0.01;
+
+	@Test
+	void addedEmailsAreAlwaysReported() {
+		EmailBloomFilter filter = new EmailBloomFilter(USERS, FALSE_POSITIVE_RATE);
+		for (int i = 0; i < USERS; i++) {
+			filter.add("user" + i + "@example.com");
+		}
+
+		for (int i = 0; i < USERS; i++) {
+			assertThat(filter.mightContain("user" + i + "@example.com")).isTrue();
+		}
+	}
+
+	@Test
+	void falsePositiveRateStaysNearConfiguredRateAtExpectedSize() {
+		EmailBloomFilter filter = new EmailBloomFilter(USERS, FALSE_POSITIVE_RATE);
+		for (int i = 0; i < USERS; i++) {
+			filter.add("user" + i + "@example.com");
+		}
+
+		int probes = 200_000;
+		int falsePositives = 0;
+		for (int i = 0; i < probes; i++) {
+			if (filter.mightContain("stranger" + i + "@example.org")) {
+				falsePositives++;
+			}
+		}
+		// Generous bound: the point is catching a broken hash, not benchmarking it.
+		assertThat((double) falsePositives / probes).isLessThan(FALSE_POSITIVE_RATE * 2);
+	}
+}
@@ -16,6 +16,11 @@ export interface AuthResponse {
   email: string;
 }
 
+export interface EmailAvailabilityResponse {
+  email: string;
+  available: boolean;
+}
+
 export interface RefreshRequest {
   refreshToken: string;
 }
@@ -34,6 +39,14 @@ export const authApi = {
     return response.data;
   },
 
+  // Check whether an email is still free before submitting the signup form
+  checkEmailAvailability: async (email: string): Promise<EmailAvailabilityResponse> => {
+    const response = await axiosInstance.get<EmailAvailabilityResponse>('/api/auth/email-availability', {
+      params: { email },
+    });
+    return response.data;
+  },
+
   // Refresh access token
   refresh: async (data: RefreshRequest): Promise<AuthResponse> => {
     const response = await axiosInstance.post<AuthResponse>('/api/auth/refresh', data);
@@ -4,6 +4,7 @@ import { zodResolver } from '@hookform/resolvers/zod';
 import * as z from 'zod';
 import axios from 'axios';
 import { useAuth } from '../context/AuthContext';
+import { authApi } from '../api/auth';
 
 const loginSchema = z.object({
   email: z.string().email('Invalid email address'),
@@ -25,6 +26,7 @@ type RegisterFormData = z.infer<typeof registerSchema>;
 export default function AuthForm() {
   const [isLogin, setIsLogin] = useState(true);
   const [submitError, setSubmitError] = useState<string | null>(null);
+  const [emailTaken, setEmailTaken] = useState(false);
   const { login, register: registerUser } = useAuth();
 
   const getErrorMessage = (error: unknown) => {
@@ -50,6 +52,7 @@ export default function AuthForm() {
   const {
     register: registerSignup,
     handleSubmit: handleSubmitSignup,
+    getValues: getSignupValues,
     formState: { errors: signupErrors, isSubmitting: isRegisterSubmitting },
     reset: resetSignup
   } = useForm<RegisterFormData>({
@@ -77,9 +80,28 @@ export default function AuthForm() {
     }
   };
 
+  // Advisory check on blur; the register call remains the source of truth
+  const checkEmailAvailability = async (email: string) => {
+    setEmailTaken(false);
+    if (!z.string().email().safeParse(email).success) {
+      return;
+    }
+    try {
+      const { available } = await authApi.checkEmailAvailability(email);
+      // The user may have edited the field while the request was in flight
+      if (getSignupValues('email') !== email) {
+        return;
+      }
+      setEmailTaken(!available);
+    } catch {
+      // Ignore, the form still validates on submit
+    }
+  };
+
   const toggleMode = () => {
     setIsLogin(!isLogin);
     setSubmitError(null);
+    setEmailTaken(false);
     resetLogin();
     resetSignup();
   };
@@ -205,7 +227,10 @@ export default function AuthForm() {
                 Email Address
               </label>
               <input
-                {...registerSignup('email')}
+                {...registerSignup('email', {
+                  onChange: () => setEmailTaken(false),
+                  onBlur: (event) => checkEmailAvailability(event.target.value),
+                })}
                 id="register-email"
                 type="email"
                 autoComplete="email"
@@ -221,6 +246,11 @@ export default function AuthForm() {
                   {signupErrors.email.message}
                 </p>
               )}
+              {!signupErrors.email && emailTaken && (
+                <p id="register-email-taken" className="mt-1 text-xs text-red-500" role="alert">
+                  This email is already registered
+                </p>
+              )}
             </div>
 
             <div>